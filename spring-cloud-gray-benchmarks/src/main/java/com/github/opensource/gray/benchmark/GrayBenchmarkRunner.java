@@ -0,0 +1,28 @@
+package com.github.opensource.gray.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口，默认开启GC profiler输出每次操作的内存分配速率。
+ * <p>
+ * 使用方式：java -jar target/benchmarks.jar [JMH命令行参数]，例如只运行负载均衡相关的基准测试：
+ * java -jar target/benchmarks.jar LoadBalancer
+ *
+ * @author double
+ * @Date 2026/10/17 11:20
+ */
+public class GrayBenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        options.addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
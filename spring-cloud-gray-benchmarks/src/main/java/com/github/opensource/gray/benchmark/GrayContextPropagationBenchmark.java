@@ -0,0 +1,63 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayContextExecutorService;
+import com.github.opensource.gray.GrayRequestContextHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 灰度上下文跨线程传递的开销：分别在平台线程池和虚拟线程执行器上，
+ * 对比原始执行器与GrayContextExecutorService包装后提交并等待一个任务的耗时。
+ * 虚拟线程需要JDK 21及以上，低版本JDK运行virtual参数时会在Setup阶段失败。
+ *
+ * @author double
+ * @Date 2026/10/17 17:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayContextPropagationBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"false", "true"})
+    public boolean propagate;
+
+    private ExecutorService executor;
+
+    private final Callable<String> task = GrayRequestContextHolder::getGrayTag;
+
+    @Setup
+    public void setup() throws Exception {
+        ExecutorService raw = "virtual".equals(threads)
+                ? (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        executor = propagate ? GrayContextExecutorService.wrap(raw) : raw;
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String submitGrayTask() throws ExecutionException, InterruptedException {
+        GrayRequestContextHolder.setGrayTag(GrayConstant.HEADER_VERSION_FLAG_GRAY);
+        try {
+            return executor.submit(task).get();
+        } finally {
+            GrayRequestContextHolder.remove();
+        }
+    }
+}
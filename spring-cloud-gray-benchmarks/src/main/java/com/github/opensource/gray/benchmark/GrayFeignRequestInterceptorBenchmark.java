@@ -0,0 +1,54 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayRequestContextHolder;
+import com.github.opensource.gray.feign.GrayFeignRequestInterceptor;
+import feign.RequestTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GrayFeignRequestInterceptor.apply的基准测试。
+ * 每次调用都新建RequestTemplate，newTemplate给出了这部分的基线开销。
+ *
+ * @author double
+ * @Date 2026/10/17 14:00
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayFeignRequestInterceptorBenchmark {
+
+    @Param({"gray", "none"})
+    public String tag;
+
+    private final GrayFeignRequestInterceptor interceptor = new GrayFeignRequestInterceptor();
+
+    @Setup
+    public void setup() {
+        if (GrayConstant.HEADER_VERSION_FLAG_GRAY.equals(tag)) {
+            GrayRequestContextHolder.setGrayTag(GrayConstant.HEADER_VERSION_FLAG_GRAY);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        GrayRequestContextHolder.remove();
+    }
+
+    @Benchmark
+    public RequestTemplate newTemplate() {
+        return new RequestTemplate();
+    }
+
+    @Benchmark
+    public RequestTemplate apply() {
+        RequestTemplate template = new RequestTemplate();
+        interceptor.apply(template);
+        return template;
+    }
+}
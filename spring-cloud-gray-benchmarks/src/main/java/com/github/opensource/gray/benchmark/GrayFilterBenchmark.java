@@ -0,0 +1,55 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.web.GrayFilter;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GrayFilter.doFilter的基准测试。请求和响应使用动态代理桩，只实现getHeader。
+ *
+ * @author double
+ * @Date 2026/10/17 13:55
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayFilterBenchmark {
+
+    @Param({"gray", "none"})
+    public String tag;
+
+    private final GrayFilter filter = new GrayFilter();
+
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    private HttpServletRequest request;
+
+    private HttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        String header = "none".equals(tag) ? null : tag;
+        request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) ->
+                        "getHeader".equals(method.getName()) && GrayConstant.HEADER_VERSION_GRAY.equals(args[0]) ? header : null);
+        response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> null);
+    }
+
+    @Benchmark
+    public void doFilter() throws IOException, ServletException {
+        filter.doFilter(request, response, chain);
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.gateway.GrayGlobalFilter;
+import com.github.opensource.gray.gateway.GrayProperties;
+import com.github.opensource.gray.gateway.GrayRuleEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GrayGlobalFilter.filter的基准测试，分别覆盖请求头携带和不携带version的情况。
+ * 过滤器链的下游只消费交换机对象，不做其它处理。
+ *
+ * @author double
+ * @Date 2026/10/17 13:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayGlobalFilterBenchmark {
+
+    private GrayGlobalFilter filter;
+
+    private MockServerWebExchange grayExchange;
+
+    private MockServerWebExchange plainExchange;
+
+    @Setup
+    public void setup() {
+        GrayProperties grayProperties = new GrayProperties();
+        grayProperties.setEnabled(true);
+        filter = new GrayGlobalFilter(new GrayRuleEngine(grayProperties));
+        grayExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/demo")
+                .header(GrayConstant.HEADER_VERSION_GRAY, GrayConstant.HEADER_VERSION_FLAG_GRAY));
+        plainExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/demo"));
+    }
+
+    @Benchmark
+    public void withVersionHeader(Blackhole blackhole) {
+        filter.filter(grayExchange, chain(blackhole)).block();
+    }
+
+    @Benchmark
+    public void withoutVersionHeader(Blackhole blackhole) {
+        filter.filter(plainExchange, chain(blackhole)).block();
+    }
+
+    private static GatewayFilterChain chain(Blackhole blackhole) {
+        return exchange -> {
+            blackhole.consume(exchange);
+            return Mono.empty();
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.gateway.GrayServerHttpRequest;
+import com.github.opensource.gray.gateway.GrayServerWebExchange;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关添加version请求头的两种方式对比：
+ * 原来的request.mutate().header(...)加exchange.mutate()会复制整个请求头，
+ * GrayServerHttpRequest只在原始请求头之上覆盖version。
+ * 下游读取version和一个其它请求头，模拟负载均衡器和路由过滤器的读取。
+ * 配合GC profiler（-prof gc）对比每次操作的分配量。
+ *
+ * @author double
+ * @Date 2026/10/17 21:05
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayHeaderMutationBenchmark {
+
+    /**
+     * 请求头数量，浏览器请求经过网关时通常有十几到二十几个请求头
+     */
+    @Param({"5", "20", "50"})
+    public int headerCount;
+
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setup() {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get("/api/demo");
+        for (int i = 0; i < headerCount; i++) {
+            builder.header("X-Header-" + i, "value-" + i);
+        }
+        exchange = MockServerWebExchange.from(builder);
+    }
+
+    @Benchmark
+    public String copyingMutation() {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .header(GrayConstant.HEADER_VERSION_GRAY, GrayConstant.HEADER_VERSION_FLAG_GRAY)
+                .build();
+        return read(exchange.mutate().request(request).build());
+    }
+
+    @Benchmark
+    public String overlayDecorator() {
+        return read(new GrayServerWebExchange(exchange, new GrayServerHttpRequest(exchange.getRequest(),
+                GrayConstant.HEADER_VERSION_GRAY, GrayConstant.HEADER_VERSION_FLAG_GRAY)));
+    }
+
+    private static String read(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String version = headers.getFirst(GrayConstant.HEADER_VERSION_GRAY);
+        return headers.containsKey("X-Header-0") ? version : null;
+    }
+}
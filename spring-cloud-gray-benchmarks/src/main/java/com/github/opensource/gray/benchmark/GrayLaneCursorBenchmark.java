@@ -0,0 +1,81 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.loadbalancer.GrayLaneCursor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 轮询游标的多线程扩展性：所有线程共享一个AtomicInteger（原实现）与按线程分条带、填充缓存行的GrayLaneCursor。
+ * 分别在1、8、32、64个线程下运行，对比吞吐随线程数的变化。
+ *
+ * @author double
+ * @Date 2026/10/17 18:45
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayLaneCursorBenchmark {
+
+    private static final int INSTANCES = 10;
+
+    private final AtomicInteger shared = new AtomicInteger();
+
+    private final GrayLaneCursor cursor = new GrayLaneCursor(0);
+
+    private int sharedIndex() {
+        return (shared.incrementAndGet() & Integer.MAX_VALUE) % INSTANCES;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int sharedAtomic01() {
+        return sharedIndex();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int sharedAtomic08() {
+        return sharedIndex();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int sharedAtomic32() {
+        return sharedIndex();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int sharedAtomic64() {
+        return sharedIndex();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int laneCursor01() {
+        return cursor.nextIndex(INSTANCES);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int laneCursor08() {
+        return cursor.nextIndex(INSTANCES);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int laneCursor32() {
+        return cursor.nextIndex(INSTANCES);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int laneCursor64() {
+        return cursor.nextIndex(INSTANCES);
+    }
+}
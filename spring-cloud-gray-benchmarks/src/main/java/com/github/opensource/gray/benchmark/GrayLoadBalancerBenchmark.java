@@ -0,0 +1,68 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.loadbalancer.GrayInstanceStatsRegistry;
+import com.github.opensource.gray.loadbalancer.GrayLoadBalancerMetrics;
+import com.github.opensource.gray.loadbalancer.GrayLoadBalancerProperties;
+import com.github.opensource.gray.loadbalancer.GrayRoundRobinLoadBalancer;
+import com.github.opensource.gray.loadbalancer.GrayRoutingConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GrayRoundRobinLoadBalancer.choose的基准测试，覆盖不同实例数量、灰度实例占比、灰度/基线请求以及泳道内的选择策略。
+ *
+ * @author double
+ * @Date 2026/10/17 13:45
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayLoadBalancerBenchmark {
+
+    private static final String SERVICE_ID = "gray-demo";
+
+    @Param({"10", "100", "1000"})
+    public int instanceCount;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double grayRatio;
+
+    @Param({"gray", "base"})
+    public String tag;
+
+    @Param({"ROUND_ROBIN", "LEAST_OUTSTANDING"})
+    public GrayLoadBalancerProperties.Strategy strategy;
+
+    private GrayRoundRobinLoadBalancer loadBalancer;
+
+    private Request<RequestDataContext> request;
+
+    @Setup
+    public void setup() {
+        StubServiceInstanceListSupplier supplier = new StubServiceInstanceListSupplier(SERVICE_ID,
+                StubServiceInstanceListSupplier.instances(SERVICE_ID, instanceCount, grayRatio));
+        GrayLoadBalancerProperties.Service service = new GrayLoadBalancerProperties.Service();
+        service.setStrategy(strategy);
+        GrayLoadBalancerProperties properties = new GrayLoadBalancerProperties();
+        properties.getServices().put(SERVICE_ID, service);
+        GrayRoutingConfig config = GrayRoutingConfig.of(properties, null);
+        loadBalancer = new GrayRoundRobinLoadBalancer(new StubObjectProvider<>(supplier), SERVICE_ID, () -> config,
+                GrayLoadBalancerMetrics.NOOP, new GrayInstanceStatsRegistry(), 0);
+        // 只读attributes，每次choose都完整执行请求分类
+        request = GrayRequestClassifierBenchmark.request(tag, Collections.emptyMap());
+    }
+
+    @Benchmark
+    public Response<ServiceInstance> choose() {
+        return loadBalancer.choose(request).block();
+    }
+}
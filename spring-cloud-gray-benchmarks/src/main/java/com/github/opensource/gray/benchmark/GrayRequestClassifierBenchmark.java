@@ -0,0 +1,85 @@
+package com.github.opensource.gray.benchmark;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.lang.TypeReference;
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import com.github.opensource.gray.loadbalancer.GrayRequestClassifier;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求灰度分类的对比基准测试：原先基于hutool Convert/TypeReference的实现与GrayRequestClassifier。
+ * <p>
+ * classifierCached使用可写的attributes，重复分类同一个请求时命中缓存（对应重试场景）；
+ * classifierUncached使用只读的attributes（对应WebClient场景），每次都读取请求头。
+ *
+ * @author double
+ * @Date 2026/10/17 11:24
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrayRequestClassifierBenchmark {
+
+    @Param({"gray", "base", "none"})
+    public String tag;
+
+    private Request<RequestDataContext> cachedRequest;
+
+    private Request<RequestDataContext> uncachedRequest;
+
+    @Setup
+    public void setup() {
+        cachedRequest = request(tag, new HashMap<>());
+        uncachedRequest = request(tag, Collections.emptyMap());
+    }
+
+    @Benchmark
+    public boolean hutoolConvert() {
+        DefaultRequest<RequestDataContext> defaultRequest = Convert
+                .convert(new TypeReference<DefaultRequest<RequestDataContext>>() {
+                }, uncachedRequest);
+        RequestData requestData = defaultRequest.getContext().getClientRequest();
+        String gray = CollectionUtil.get(requestData.getHeaders().get(GrayConstant.HEADER_VERSION_GRAY), 0);
+        return StringUtils.isNotBlank(gray) && StringUtils.equals(GrayConstant.HEADER_VERSION_FLAG_GRAY, gray);
+    }
+
+    @Benchmark
+    public GrayLane classifierUncached() {
+        return GrayRequestClassifier.classify(uncachedRequest, GrayLaneRegistry.getInstance());
+    }
+
+    @Benchmark
+    public GrayLane classifierCached() {
+        return GrayRequestClassifier.classify(cachedRequest, GrayLaneRegistry.getInstance());
+    }
+
+    static Request<RequestDataContext> request(String tag, Map<String, Object> attributes) {
+        HttpHeaders headers = new HttpHeaders();
+        if (tag != null && !"none".equals(tag)) {
+            headers.add(GrayConstant.HEADER_VERSION_GRAY, tag);
+        }
+        RequestData requestData = new RequestData(HttpMethod.GET, URI.create("http://gray-demo/api"), headers,
+                new LinkedMultiValueMap<>(), attributes);
+        return new DefaultRequest<>(new RequestDataContext(requestData));
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.opensource.gray.benchmark;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * 固定返回同一个对象的ObjectProvider，用于脱离Spring容器构造负载均衡器
+ *
+ * @author double
+ * @Date 2026/10/17 13:42
+ */
+public class StubObjectProvider<T> implements ObjectProvider<T> {
+
+    private final T object;
+
+    public StubObjectProvider(T object) {
+        this.object = object;
+    }
+
+    @Override
+    public T getObject() {
+        return object;
+    }
+
+    @Override
+    public T getObject(Object... args) {
+        return object;
+    }
+
+    @Override
+    public T getIfAvailable() {
+        return object;
+    }
+
+    @Override
+    public T getIfUnique() {
+        return object;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.opensource.gray.benchmark;
+
+import com.github.opensource.gray.GrayConstant;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 替代服务发现的本地实例列表，每次返回同一个列表对象，行为与CachingServiceInstanceListSupplier一致。
+ *
+ * @author double
+ * @Date 2026/10/17 13:40
+ */
+public class StubServiceInstanceListSupplier implements ServiceInstanceListSupplier {
+
+    private final String serviceId;
+
+    private final List<ServiceInstance> instances;
+
+    public StubServiceInstanceListSupplier(String serviceId, List<ServiceInstance> instances) {
+        this.serviceId = serviceId;
+        this.instances = instances;
+    }
+
+    /**
+     * 生成指定数量的实例，前 instanceCount * grayRatio 个实例的元数据version为gray
+     *
+     * @param serviceId     服务名称
+     * @param instanceCount 实例数量
+     * @param grayRatio     灰度实例占比，取值0~1
+     * @return 实例列表
+     */
+    public static List<ServiceInstance> instances(String serviceId, int instanceCount, double grayRatio) {
+        int grayCount = (int) Math.round(instanceCount * grayRatio);
+        List<ServiceInstance> instances = new ArrayList<>(instanceCount);
+        for (int i = 0; i < instanceCount; i++) {
+            Map<String, String> metadata = i < grayCount
+                    ? Map.of(GrayConstant.HEADER_VERSION_GRAY, GrayConstant.HEADER_VERSION_FLAG_GRAY)
+                    : Map.of();
+            instances.add(new DefaultServiceInstance(serviceId + "-" + i, serviceId, "10.0." + (i / 250) + "." + (i % 250),
+                    8080, false, metadata));
+        }
+        return Collections.unmodifiableList(instances);
+    }
+
+    @Override
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return Flux.just(instances);
+    }
+}
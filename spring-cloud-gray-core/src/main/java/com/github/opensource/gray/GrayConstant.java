@@ -27,4 +27,24 @@ public class GrayConstant {
      * 当请求头中的版本值为此常量时，表示请求是针对基础（非灰度）版本的服务。
      */
     public final static String HEADER_VERSION_FLAG_BASE = "base";
-}
\ No newline at end of file
+
+    /**
+     * 灰度标记在Reactor Context、网关exchange attributes以及Micrometer上下文传播中使用的键。
+     */
+    public final static String GRAY_TAG_ATTRIBUTE = "com.github.opensource.gray.grayTag";
+
+    /**
+     * 实例元数据字段名：可用区，与spring cloud loadbalancer的zone偏好使用同一个字段。
+     */
+    public final static String METADATA_ZONE = "zone";
+
+    /**
+     * 实例元数据字段名：权重，缺省或无法解析时为{@link #DEFAULT_WEIGHT}。
+     */
+    public final static String METADATA_WEIGHT = "weight";
+
+    /**
+     * 实例的默认权重。
+     */
+    public final static int DEFAULT_WEIGHT = 1;
+}
@@ -0,0 +1,124 @@
+package com.github.opensource.gray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 传递灰度上下文的ExecutorService包装类，提交的每个任务都会捕获提交线程的灰度标签。
+ * 适用于CompletableFuture异步执行、Feign调用使用的Hystrix/Resilience4j隔离线程池等场景。
+ *
+ * @author double
+ * @Date 2026/10/17 16:52
+ */
+public class GrayContextExecutorService implements ExecutorService {
+
+    private final ExecutorService delegate;
+
+    public GrayContextExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 包装ExecutorService，已经包装过的直接返回
+     *
+     * @param executorService 原始的ExecutorService
+     * @return 传递灰度上下文的ExecutorService
+     */
+    public static ExecutorService wrap(ExecutorService executorService) {
+        if (executorService instanceof GrayContextExecutorService) {
+            return executorService;
+        }
+        return new GrayContextExecutorService(executorService);
+    }
+
+    /**
+     * 包装Executor，执行的每个任务都会捕获提交线程的灰度标签
+     *
+     * @param executor 原始的Executor
+     * @return 传递灰度上下文的Executor
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor instanceof ExecutorService executorService) {
+            return wrap(executorService);
+        }
+        return task -> executor.execute(GrayContextSnapshot.capture().wrap(task));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(GrayContextSnapshot.capture().wrap(command));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return delegate.submit(GrayContextSnapshot.capture().wrap(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return delegate.submit(GrayContextSnapshot.capture().wrap(task), result);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return delegate.submit(GrayContextSnapshot.capture().wrap(task));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return delegate.invokeAll(wrap(tasks));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return delegate.invokeAll(wrap(tasks), timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        return delegate.invokeAny(wrap(tasks));
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return delegate.invokeAny(wrap(tasks), timeout, unit);
+    }
+
+    private static <T> List<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
+        GrayContextSnapshot snapshot = GrayContextSnapshot.capture();
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(snapshot.wrap(task));
+        }
+        return wrapped;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.opensource.gray;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 灰度上下文跨线程传递的自动配置。
+ * 应用中没有其它TaskDecorator时注册{@link GrayTaskDecorator}，由Spring Boot应用到applicationTaskExecutor。
+ * 已有TaskDecorator的应用可以在自己的实现中调用{@link GrayContextSnapshot#capture()}组合使用。
+ *
+ * @author double
+ * @Date 2026/10/17 16:58
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true", matchIfMissing = true)
+public class GrayContextPropagationAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(TaskDecorator.class)
+    public GrayTaskDecorator grayTaskDecorator() {
+        return new GrayTaskDecorator();
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.opensource.gray;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * 灰度上下文快照，用于将提交任务线程的灰度版本标签传递到执行任务的线程。
+ * <p>
+ * 快照在提交任务时捕获，在执行线程上通过{@link GrayRequestContextHolder#runWithRoutingContext(GrayRoutingContext, Runnable)}
+ * 恢复，执行结束后还原执行线程原来的标签，不会污染线程池中的线程。
+ * 快照持有的是入站请求的{@link GrayRoutingContext}实例本身，异步线程上的出站调用复用已经解析的灰度决策。
+ * 当前线程没有灰度标签时快照为共享的空实例，wrap直接返回原任务，不产生额外开销。
+ *
+ * @author double
+ * @Date 2026/10/17 16:40
+ */
+public final class GrayContextSnapshot {
+
+    private static final GrayContextSnapshot EMPTY = new GrayContextSnapshot(null);
+
+    private final GrayRoutingContext routingContext;
+
+    private GrayContextSnapshot(GrayRoutingContext routingContext) {
+        this.routingContext = routingContext;
+    }
+
+    /**
+     * 捕获当前线程的灰度上下文
+     *
+     * @return 灰度上下文快照
+     */
+    public static GrayContextSnapshot capture() {
+        GrayRoutingContext routingContext = GrayRequestContextHolder.getRoutingContext();
+        return routingContext == null ? EMPTY : new GrayContextSnapshot(routingContext);
+    }
+
+    /**
+     * @return 快照中的灰度版本标签，可能为null
+     */
+    public String getGrayTag() {
+        return routingContext == null ? null : routingContext.getGrayTag();
+    }
+
+    /**
+     * @return 快照中的灰度路由上下文，可能为null
+     */
+    public GrayRoutingContext getRoutingContext() {
+        return routingContext;
+    }
+
+    /**
+     * 包装任务，执行时恢复快照中的灰度标签
+     *
+     * @param task 原任务
+     * @return 包装后的任务，快照为空时返回原任务
+     */
+    public Runnable wrap(Runnable task) {
+        if (routingContext == null) {
+            return task;
+        }
+        return () -> GrayRequestContextHolder.runWithRoutingContext(routingContext, task);
+    }
+
+    /**
+     * 包装任务，执行时恢复快照中的灰度标签
+     *
+     * @param task 原任务
+     * @return 包装后的任务，快照为空时返回原任务
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        if (routingContext == null) {
+            return task;
+        }
+        return () -> GrayRequestContextHolder.callWithRoutingContext(routingContext, task);
+    }
+
+    /**
+     * 包装任务，执行时恢复快照中的灰度标签，适用于CompletableFuture.supplyAsync
+     *
+     * @param task 原任务
+     * @return 包装后的任务，快照为空时返回原任务
+     */
+    public <T> Supplier<T> wrapSupplier(Supplier<T> task) {
+        if (routingContext == null) {
+            return task;
+        }
+        return () -> GrayRequestContextHolder.supplyWithRoutingContext(routingContext, task);
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.opensource.gray;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 请求的灰度路由决策：所属泳道以及可选的粘性哈希。
+ * <p>
+ * 网关在过滤器中完成分类后以{@link #ATTRIBUTE}写入exchange attributes，负载均衡器通过RequestData的attributes
+ * 直接读取，不再重复解析请求头；非网关调用方由负载均衡器分类后同样缓存在attributes中，重试时复用。
+ * 没有粘性哈希的决策按泳道共享同一个实例，不产生分配；泳道ID复用后按新的泳道重新创建。
+ *
+ * @author double
+ * @Date 2026/10/17 21:20
+ */
+public final class GrayDecision {
+
+    /**
+     * 存放路由决策的attribute名称
+     */
+    public static final String ATTRIBUTE = GrayDecision.class.getName();
+
+    private static final AtomicReferenceArray<GrayDecision> SHARED = new AtomicReferenceArray<>(GrayLaneRegistry.MAX_LANES);
+
+    private final GrayLane lane;
+
+    /**
+     * 计算粘性哈希使用的请求头，没有粘性哈希时为null
+     */
+    private final String stickyHeader;
+
+    private final int stickyHash;
+
+    private GrayDecision(GrayLane lane, String stickyHeader, int stickyHash) {
+        this.lane = lane;
+        this.stickyHeader = stickyHeader;
+        this.stickyHash = stickyHash;
+    }
+
+    /**
+     * @param lane 泳道
+     * @return 没有粘性哈希的决策，按泳道共享
+     */
+    public static GrayDecision of(GrayLane lane) {
+        GrayDecision decision = SHARED.get(lane.getId());
+        // 泳道淘汰后ID可能分配给新的泳道，缓存的决策属于其它泳道时替换
+        if (decision == null || decision.lane != lane) {
+            decision = new GrayDecision(lane, null, 0);
+            SHARED.set(lane.getId(), decision);
+        }
+        return decision;
+    }
+
+    /**
+     * @param lane         泳道
+     * @param stickyHeader 粘性请求头名称
+     * @param stickyValue  粘性请求头的值，为null时返回没有粘性哈希的决策
+     * @return 路由决策
+     */
+    public static GrayDecision of(GrayLane lane, String stickyHeader, String stickyValue) {
+        if (stickyHeader == null || stickyValue == null) {
+            return of(lane);
+        }
+        return new GrayDecision(lane, stickyHeader, GrayHash.hash(stickyValue));
+    }
+
+    public GrayLane getLane() {
+        return lane;
+    }
+
+    /**
+     * @param header 粘性请求头名称
+     * @return 是否有按该请求头计算的粘性哈希
+     */
+    public boolean hasStickyHash(String header) {
+        return stickyHeader != null && stickyHeader.equalsIgnoreCase(header);
+    }
+
+    /**
+     * @return 是否有粘性哈希
+     */
+    public boolean hasStickyHash() {
+        return stickyHeader != null;
+    }
+
+    public String getStickyHeader() {
+        return stickyHeader;
+    }
+
+    /**
+     * @return {@link GrayHash#hash(String)}计算的粘性哈希
+     */
+    public int getStickyHash() {
+        return stickyHash;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.opensource.gray;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 一次灰度决策的结构化事件：请求携带的灰度标记、命中的规则、最终路由的泳道、选中的实例以及决策原因。
+ * <p>
+ * 只有被{@link GrayDecisionTracer 采样}的请求才会创建事件，未采样的请求不会分配任何对象。
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+@Getter
+@Builder
+public class GrayDecisionEvent {
+
+    /**
+     * 事件时间，毫秒时间戳
+     */
+    @Builder.Default
+    private final long timestamp = System.currentTimeMillis();
+
+    /**
+     * 记录事件的组件，例如gateway、webmvc、loadbalancer
+     */
+    private final String component;
+
+    /**
+     * 负载均衡的目标服务，入口组件记录的事件为null
+     */
+    private final String serviceId;
+
+    /**
+     * 请求携带或判定的灰度标记
+     */
+    private final String grayTag;
+
+    /**
+     * 最终路由的泳道，使用全部实例时为null
+     */
+    private final String lane;
+
+    /**
+     * 命中的灰度规则表达式，没有命中规则时为null
+     */
+    private final String rule;
+
+    /**
+     * 选中的实例，host:port
+     */
+    private final String instance;
+
+    private final GrayDecisionReason reason;
+
+    @Override
+    public String toString() {
+        return "component=" + component + ", service=" + serviceId + ", tag=" + grayTag + ", lane=" + lane
+                + ", rule=" + rule + ", instance=" + instance + ", reason=" + reason;
+    }
+}
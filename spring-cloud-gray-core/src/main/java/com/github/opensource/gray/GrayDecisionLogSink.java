@@ -0,0 +1,25 @@
+package com.github.opensource.gray;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 将灰度决策事件输出到日志，每个事件一行
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+@Slf4j
+public class GrayDecisionLogSink implements GrayDecisionSink {
+
+    @Override
+    public void accept(List<GrayDecisionEvent> events) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        for (GrayDecisionEvent event : events) {
+            log.info("Gray decision: {}", event);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.opensource.gray;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 按组件、泳道和决策原因对采样到的灰度决策事件计数，指标名称为{@value #DECISIONS}。
+ * 计数只包含被采样的事件，需要按采样率换算。
+ * <p>
+ * lane标签只取已驻留的泳道名称，未驻留的取值记为base，没有泳道（在全部实例中选择）记为{@value #NO_LANE}，
+ * 客户端传入的任意请求头取值不会产生新的时间序列。
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+public class GrayDecisionMetricsSink implements GrayDecisionSink {
+
+    /**
+     * 采样的决策事件计数的指标名称
+     */
+    public static final String DECISIONS = "gray.decisions";
+
+    /**
+     * 没有泳道时的lane标签
+     */
+    public static final String NO_LANE = "none";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    private final GrayLaneRegistry laneRegistry = GrayLaneRegistry.getInstance();
+
+    /**
+     * @param meterRegistry 在输出线程上首次使用时获取，没有MeterRegistry时不记录
+     */
+    public GrayDecisionMetricsSink(Supplier<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void accept(List<GrayDecisionEvent> events) {
+        MeterRegistry registry = meterRegistry.get();
+        if (registry == null) {
+            return;
+        }
+        for (GrayDecisionEvent event : events) {
+            Counter.builder(DECISIONS)
+                    .tag("component", String.valueOf(event.getComponent()))
+                    .tag("lane", lane(event.getLane()))
+                    .tag("reason", String.valueOf(event.getReason()))
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    private String lane(String name) {
+        if (name == null) {
+            return NO_LANE;
+        }
+        GrayLane lane = laneRegistry.find(name);
+        return lane != null ? lane.getName() : GrayConstant.HEADER_VERSION_FLAG_BASE;
+    }
+}
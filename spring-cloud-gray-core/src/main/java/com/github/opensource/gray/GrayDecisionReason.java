@@ -0,0 +1,60 @@
+package com.github.opensource.gray;
+
+/**
+ * 灰度决策的原因，随{@link GrayDecisionEvent}记录，用于事后还原请求为什么走了灰度或基线。
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+public enum GrayDecisionReason {
+
+    /**
+     * 请求头version指定了泳道
+     */
+    HEADER,
+
+    /**
+     * 请求命中了网关配置的灰度规则
+     */
+    RULE,
+
+    /**
+     * 没有灰度标记，也没有命中灰度规则，走基线
+     */
+    DEFAULT,
+
+    /**
+     * 服务没有灰度实例，跳过灰度分类直接使用基线实例
+     */
+    NO_GRAY_INSTANCES,
+
+    /**
+     * 路由到请求指定的泳道
+     */
+    LANE,
+
+    /**
+     * 基线请求按灰度流量权重分流到灰度实例
+     */
+    WEIGHT,
+
+    /**
+     * 请求指定的泳道没有实例，沿降级链路由到其它泳道
+     */
+    FALLBACK,
+
+    /**
+     * 降级链上都没有实例，使用全部实例
+     */
+    ALL_INSTANCES,
+
+    /**
+     * 重试或对冲请求，排除已经尝试过的实例后选择
+     */
+    RETRY,
+
+    /**
+     * 没有可用实例
+     */
+    EMPTY
+}
@@ -0,0 +1,99 @@
+package com.github.opensource.gray;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 有界、无锁的多生产者单消费者环形缓冲区，存放待输出的{@link GrayDecisionEvent}。
+ * <p>
+ * 每个槽位带一个序号，生产者CAS推进写入位置后写入槽位并发布序号；缓冲区满时{@link #offer}直接返回false，
+ * 请求线程不会阻塞也不会自旋等待消费者。只有后台的输出线程调用{@link #drain}。
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+public final class GrayDecisionRingBuffer {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<GrayDecisionEvent> events;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong writePosition = new AtomicLong();
+
+    private long readPosition;
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public GrayDecisionRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.events = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一个事件
+     *
+     * @param event 事件
+     * @return 缓冲区已满时返回false，事件被丢弃
+     */
+    public boolean offer(GrayDecisionEvent event) {
+        long position = writePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (writePosition.compareAndSet(position, position + 1)) {
+                    events.set(index, event);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = writePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = writePosition.get();
+            }
+        }
+    }
+
+    /**
+     * 取出最多max个已经发布的事件，只能由一个线程调用
+     *
+     * @param consumer 事件消费者
+     * @param max      最多取出的数量
+     * @return 取出的数量
+     */
+    public synchronized int drain(Consumer<GrayDecisionEvent> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            long position = readPosition;
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            GrayDecisionEvent event = events.get(index);
+            events.lazySet(index, null);
+            sequences.lazySet(index, position + mask + 1);
+            readPosition = position + 1;
+            consumer.accept(event);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return 容量
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
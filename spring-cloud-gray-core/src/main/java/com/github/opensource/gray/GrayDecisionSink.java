@@ -0,0 +1,21 @@
+package com.github.opensource.gray;
+
+import java.util.List;
+
+/**
+ * 灰度决策事件的输出目标，在后台输出线程上按批调用，实现类不需要考虑请求线程的开销。
+ * 容器中的GrayDecisionSink bean会自动注册到{@link GrayDecisionTraceDrainer}。
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+@FunctionalInterface
+public interface GrayDecisionSink {
+
+    /**
+     * 输出一批事件
+     *
+     * @param events 按记录顺序排列的事件，不可修改
+     */
+    void accept(List<GrayDecisionEvent> events);
+}
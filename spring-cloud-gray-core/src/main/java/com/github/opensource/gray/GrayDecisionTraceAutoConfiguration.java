@@ -0,0 +1,65 @@
+package com.github.opensource.gray;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+/**
+ * 灰度决策追踪的自动配置，spring.cloud.loadbalancer.gray.trace.enabled=true时开启采样并启动后台输出
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.trace.enabled", havingValue = "true")
+@EnableConfigurationProperties(GrayTraceProperties.class)
+public class GrayDecisionTraceAutoConfiguration {
+
+    @Bean
+    public GrayDecisionTracer grayDecisionTracer(GrayTraceProperties grayTraceProperties) {
+        GrayDecisionTracer tracer = GrayDecisionTracer.getInstance();
+        tracer.configure(grayTraceProperties.getSampleRate(), grayTraceProperties.getBufferSize());
+        return tracer;
+    }
+
+    @Bean
+    public GrayDecisionTraceDrainer grayDecisionTraceDrainer(GrayDecisionTracer grayDecisionTracer,
+                                                             GrayTraceProperties grayTraceProperties,
+                                                             ObjectProvider<GrayDecisionSink> sinks) {
+        return new GrayDecisionTraceDrainer(grayDecisionTracer, sinks.orderedStream().collect(Collectors.toList()),
+                grayTraceProperties.getBatchSize(), grayTraceProperties.getFlushInterval(),
+                grayTraceProperties.getRecentSize());
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.trace.log", havingValue = "true")
+    public GrayDecisionLogSink grayDecisionLogSink() {
+        return new GrayDecisionLogSink();
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.trace.metrics", havingValue = "true", matchIfMissing = true)
+    public GrayDecisionMetricsSink grayDecisionMetricsSink(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GrayDecisionMetricsSink(meterRegistry::getIfAvailable);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class GrayDecisionsEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnAvailableEndpoint
+        public GrayDecisionsEndpoint grayDecisionsEndpoint(GrayDecisionTracer grayDecisionTracer,
+                                                           GrayDecisionTraceDrainer grayDecisionTraceDrainer) {
+            return new GrayDecisionsEndpoint(grayDecisionTracer, grayDecisionTraceDrainer);
+        }
+    }
+}
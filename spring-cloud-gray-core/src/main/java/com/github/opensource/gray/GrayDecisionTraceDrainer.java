@@ -0,0 +1,129 @@
+package com.github.opensource.gray;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在后台线程上定期取出{@link GrayDecisionTracer}缓冲区中的事件，按批输出到各个{@link GrayDecisionSink}，
+ * 同时保留最近的若干事件供graydecisions端点查看。
+ * 某个输出目标抛出异常时只打印警告，不影响其它输出目标，也不会中断后续的输出。
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+@Slf4j
+public class GrayDecisionTraceDrainer implements SmartLifecycle {
+
+    private final GrayDecisionTracer tracer;
+
+    private final List<GrayDecisionSink> sinks;
+
+    private final int batchSize;
+
+    private final Duration flushInterval;
+
+    private final int recentSize;
+
+    private final Deque<GrayDecisionEvent> recent = new ArrayDeque<>();
+
+    private final List<GrayDecisionEvent> batch = new ArrayList<>();
+
+    private ScheduledExecutorService executor;
+
+    public GrayDecisionTraceDrainer(GrayDecisionTracer tracer, List<GrayDecisionSink> sinks, int batchSize,
+                                    Duration flushInterval, int recentSize) {
+        this.tracer = tracer;
+        this.sinks = sinks;
+        this.batchSize = Math.max(batchSize, 1);
+        this.flushInterval = flushInterval;
+        this.recentSize = recentSize;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "gray-decision-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+        tracer.enable();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        // 停止采样，之后不再有事件写入没有线程取出的缓冲区；再输出停止前已经记录的事件
+        tracer.disable();
+        drain();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * 取出缓冲区中的全部事件并按批输出
+     */
+    public void drain() {
+        synchronized (batch) {
+            while (tracer.drain(batch::add, batchSize) > 0) {
+                flush(Collections.unmodifiableList(new ArrayList<>(batch)));
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<GrayDecisionEvent> events) {
+        synchronized (recent) {
+            for (GrayDecisionEvent event : events) {
+                if (recent.size() >= recentSize) {
+                    recent.pollFirst();
+                }
+                recent.addLast(event);
+            }
+        }
+        for (GrayDecisionSink sink : sinks) {
+            try {
+                sink.accept(events);
+            } catch (RuntimeException e) {
+                log.warn("Gray decision sink {} failed", sink.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * @return 最近输出的事件，最新的在前
+     */
+    public List<GrayDecisionEvent> getRecent() {
+        synchronized (recent) {
+            List<GrayDecisionEvent> events = new ArrayList<>(recent);
+            Collections.reverse(events);
+            return events;
+        }
+    }
+}
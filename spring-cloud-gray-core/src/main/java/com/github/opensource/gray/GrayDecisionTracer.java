@@ -0,0 +1,127 @@
+package com.github.opensource.gray;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 灰度决策追踪的入口，网关、WebMvc和负载均衡器通过它记录{@link GrayDecisionEvent}。
+ * <p>
+ * 请求线程先调用{@link #sample()}，只有被采样时才创建事件并调用{@link #record}，
+ * 未开启或未被采样时只读一个volatile字段和一次ThreadLocalRandom，不分配对象。
+ * 事件写入无锁的{@link GrayDecisionRingBuffer}，由{@link GrayDecisionTraceDrainer}在后台批量输出，
+ * 缓冲区满时丢弃事件并计数，请求线程不会阻塞。
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+public final class GrayDecisionTracer {
+
+    /**
+     * 采样率的精度
+     */
+    private static final int SAMPLE_PRECISION = 1_000_000;
+
+    private static final GrayDecisionTracer INSTANCE = new GrayDecisionTracer();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile GrayDecisionRingBuffer buffer;
+
+    /**
+     * 采样阈值，0表示不采样，{@link #SAMPLE_PRECISION}表示全部采样
+     */
+    private volatile int sampleThreshold;
+
+    /**
+     * 配置的采样阈值，关闭追踪后重新开启时恢复
+     */
+    private int configuredThreshold;
+
+    private GrayDecisionTracer() {
+    }
+
+    /**
+     * @return 全局共享的决策追踪
+     */
+    public static GrayDecisionTracer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开启追踪
+     *
+     * @param sampleRate 采样率，取值0~1
+     * @param bufferSize 环形缓冲区容量
+     */
+    public synchronized void configure(double sampleRate, int bufferSize) {
+        GrayDecisionRingBuffer current = this.buffer;
+        if (current == null || current.capacity() < bufferSize) {
+            this.buffer = new GrayDecisionRingBuffer(bufferSize);
+        }
+        double rate = Math.min(Math.max(sampleRate, 0.0), 1.0);
+        this.configuredThreshold = (int) Math.round(rate * SAMPLE_PRECISION);
+        this.sampleThreshold = configuredThreshold;
+    }
+
+    /**
+     * 按{@link #configure}配置的采样率重新开启追踪
+     */
+    public synchronized void enable() {
+        this.sampleThreshold = configuredThreshold;
+    }
+
+    /**
+     * 关闭追踪，缓冲区中的事件保留给输出线程
+     */
+    public synchronized void disable() {
+        this.sampleThreshold = 0;
+    }
+
+    /**
+     * @return 本次决策是否需要记录
+     */
+    public boolean sample() {
+        int threshold = sampleThreshold;
+        return threshold > 0
+                && (threshold >= SAMPLE_PRECISION || ThreadLocalRandom.current().nextInt(SAMPLE_PRECISION) < threshold);
+    }
+
+    /**
+     * 记录一个已采样的事件，缓冲区满时丢弃
+     *
+     * @param event 决策事件
+     */
+    public void record(GrayDecisionEvent event) {
+        GrayDecisionRingBuffer current = buffer;
+        if (current == null || !current.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 取出缓冲区中的事件，由输出线程调用
+     *
+     * @param consumer 事件消费者
+     * @param max      最多取出的数量
+     * @return 取出的数量
+     */
+    public int drain(Consumer<GrayDecisionEvent> consumer, int max) {
+        GrayDecisionRingBuffer current = buffer;
+        return current == null ? 0 : current.drain(consumer, max);
+    }
+
+    /**
+     * @return 当前的采样率
+     */
+    public double getSampleRate() {
+        return (double) sampleThreshold / SAMPLE_PRECISION;
+    }
+
+    /**
+     * @return 因缓冲区已满而丢弃的事件数
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.opensource.gray;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查看最近采样到的灰度决策：/actuator/graydecisions 和 /actuator/graydecisions/{component}
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+@Endpoint(id = "graydecisions")
+public class GrayDecisionsEndpoint {
+
+    private final GrayDecisionTracer tracer;
+
+    private final GrayDecisionTraceDrainer drainer;
+
+    public GrayDecisionsEndpoint(GrayDecisionTracer tracer, GrayDecisionTraceDrainer drainer) {
+        this.tracer = tracer;
+        this.drainer = drainer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> decisions() {
+        return describe(drainer.getRecent());
+    }
+
+    @ReadOperation
+    public Map<String, Object> decisions(@Selector String component) {
+        List<GrayDecisionEvent> events = new ArrayList<>();
+        for (GrayDecisionEvent event : drainer.getRecent()) {
+            if (component.equals(event.getComponent())) {
+                events.add(event);
+            }
+        }
+        return describe(events);
+    }
+
+    private Map<String, Object> describe(List<GrayDecisionEvent> events) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sampleRate", tracer.getSampleRate());
+        result.put("dropped", tracer.getDropped());
+        result.put("events", events);
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.opensource.gray;
+
+/**
+ * 灰度路由使用的哈希工具类。
+ * <p>
+ * 网关规则和负载均衡器按同一个键分桶时必须得到相同的结果，因此统一使用本类计算。
+ * 基于String.hashCode并用murmur3的fmix32打散，结果在不同JVM之间是确定的。
+ *
+ * @author double
+ * @Date 2026/10/17 15:10
+ */
+public final class GrayHash {
+
+    /**
+     * 分桶数量，按万分比分桶
+     */
+    public static final int BUCKETS = 10000;
+
+    private GrayHash() {
+    }
+
+    /**
+     * 打散哈希值，避免String.hashCode低位分布不均
+     *
+     * @param hash 原始哈希值
+     * @return 打散后的哈希值
+     */
+    public static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * 计算键的哈希值
+     *
+     * @param key 键，例如用户ID
+     * @return 打散后的哈希值
+     */
+    public static int hash(String key) {
+        return mix(key.hashCode());
+    }
+
+    /**
+     * 将哈希值映射到[0, 10000)的桶
+     *
+     * @param hash {@link #hash(String)}的结果
+     * @return 桶号
+     */
+    public static int bucket(int hash) {
+        return Math.floorMod(hash, BUCKETS);
+    }
+}
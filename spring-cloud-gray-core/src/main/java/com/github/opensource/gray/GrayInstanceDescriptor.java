@@ -0,0 +1,173 @@
+package com.github.opensource.gray;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 实例与灰度路由相关的元数据（泳道、可用区、权重）的不可变描述。
+ * <p>
+ * 每个实例只在元数据变化时解析一次：version解析为泳道ID（未声明的version属于基线），weight解析为整数，
+ * 路由代码只比较这里的基本类型字段，不再按字符串读取实例的元数据Map。
+ * 原始取值一并保存，作为元数据的修订版本，用于判断缓存的描述是否仍然有效。
+ *
+ * @author double
+ * @Date 2026/10/17 19:20
+ */
+public final class GrayInstanceDescriptor {
+
+    /**
+     * 解析出该描述的实例对象，同一个实例对象再次出现时无需读取元数据
+     */
+    private final ServiceInstance instance;
+
+    private final String key;
+
+    private final int laneId;
+
+    /**
+     * 解析泳道ID时泳道注册表的代数，泳道新增或淘汰后需要重新解析
+     */
+    private final int generation;
+
+    private final String zone;
+
+    private final int weight;
+
+    private final String rawVersion;
+
+    private final String rawWeight;
+
+    private GrayInstanceDescriptor(ServiceInstance instance, String key, int laneId, int generation, String zone,
+                                   int weight, String rawVersion, String rawWeight) {
+        this.instance = instance;
+        this.key = key;
+        this.laneId = laneId;
+        this.generation = generation;
+        this.zone = zone;
+        this.weight = weight;
+        this.rawVersion = rawVersion;
+        this.rawWeight = rawWeight;
+    }
+
+    /**
+     * 解析实例的元数据
+     *
+     * @param instance 实例
+     * @param registry 泳道注册表
+     * @return 实例描述
+     */
+    public static GrayInstanceDescriptor of(ServiceInstance instance, GrayLaneRegistry registry) {
+        Map<String, String> metadata = instance.getMetadata();
+        return of(instance, key(instance), registry, metadata.get(GrayConstant.HEADER_VERSION_GRAY),
+                metadata.get(GrayConstant.METADATA_ZONE), metadata.get(GrayConstant.METADATA_WEIGHT));
+    }
+
+    static GrayInstanceDescriptor of(ServiceInstance instance, String key, GrayLaneRegistry registry,
+                                     String version, String zone, String weight) {
+        // 先读取代数再解析，解析期间泳道发生变化时下次会重新解析
+        int generation = registry.getGeneration();
+        return new GrayInstanceDescriptor(instance, key, registry.resolve(version), generation,
+                zone == null ? null : zone.intern(), parseWeight(weight), version, weight);
+    }
+
+    /**
+     * 实例的稳定标识：instanceId，没有时为host:port。
+     * 服务发现刷新后实例对象会重新创建，按标识可以保留实例相关的状态。
+     *
+     * @param instance 实例
+     * @return 实例标识
+     */
+    public static String key(ServiceInstance instance) {
+        String instanceId = instance.getInstanceId();
+        return instanceId != null ? instanceId : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static int parseWeight(String weight) {
+        if (weight == null) {
+            return GrayConstant.DEFAULT_WEIGHT;
+        }
+        try {
+            int value = (int) Math.round(Double.parseDouble(weight.trim()));
+            return value > 0 ? value : GrayConstant.DEFAULT_WEIGHT;
+        } catch (NumberFormatException e) {
+            return GrayConstant.DEFAULT_WEIGHT;
+        }
+    }
+
+    /**
+     * @param instance 元数据相同的新实例对象
+     * @return 解析结果相同、实例对象替换后的描述
+     */
+    GrayInstanceDescriptor withInstance(ServiceInstance instance) {
+        return new GrayInstanceDescriptor(instance, key, laneId, generation, zone, weight, rawVersion, rawWeight);
+    }
+
+    /**
+     * @param instance 实例对象
+     * @return 是否由该实例对象解析而来
+     */
+    boolean isDescriptorOf(ServiceInstance instance) {
+        return this.instance == instance;
+    }
+
+    /**
+     * @param generation 泳道注册表当前的代数
+     * @return 泳道ID是否仍然有效
+     */
+    boolean isGeneration(int generation) {
+        return this.generation == generation;
+    }
+
+    /**
+     * @param version version元数据
+     * @param zone    zone元数据
+     * @param weight  weight元数据
+     * @return 元数据的修订版本是否与本描述相同
+     */
+    boolean isRevision(String version, String zone, String weight) {
+        return Objects.equals(rawVersion, version) && Objects.equals(this.zone, zone)
+                && Objects.equals(rawWeight, weight);
+    }
+
+    /**
+     * @return 解析出该描述的实例
+     */
+    public ServiceInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return 实例标识
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return 泳道ID，元数据中没有version或version未声明时为基线，声明的泳道没有驻留时为{@link GrayLaneRegistry#QUARANTINE_ID}
+     */
+    public int getLaneId() {
+        return laneId;
+    }
+
+    /**
+     * @return 可用区，没有时为null。已驻留，可以直接用==比较
+     */
+    public String getZone() {
+        return zone;
+    }
+
+    /**
+     * @return 权重，至少为1
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return key + "[lane=" + laneId + ", zone=" + zone + ", weight=" + weight + "]";
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.opensource.gray;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个服务下各实例的{@link GrayInstanceDescriptor}缓存，按实例标识加元数据修订版本缓存。
+ * <p>
+ * 服务发现刷新后实例对象通常会重新创建，但元数据很少变化：同一个实例对象直接命中；
+ * 新的实例对象只读取version、zone、weight三个字段，与缓存的修订版本相同时复用原来的描述。
+ * 泳道注册表的代数变化（泳道新增或淘汰）后重新解析泳道ID。
+ * 每次实例列表变化时调用{@link #retain}，清除已经从服务发现中下线的实例，并通知注册表淘汰不再被引用的泳道。
+ *
+ * @author double
+ * @Date 2026/10/17 19:20
+ */
+public class GrayInstanceDescriptors {
+
+    private final GrayLaneRegistry laneRegistry;
+
+    private final Map<String, GrayInstanceDescriptor> descriptors = new ConcurrentHashMap<>();
+
+    public GrayInstanceDescriptors(GrayLaneRegistry laneRegistry) {
+        this.laneRegistry = laneRegistry;
+        laneRegistry.register(this);
+    }
+
+    /**
+     * @param instance 实例
+     * @return 实例描述，元数据变化时重新解析
+     */
+    public GrayInstanceDescriptor get(ServiceInstance instance) {
+        String key = GrayInstanceDescriptor.key(instance);
+        GrayInstanceDescriptor descriptor = descriptors.get(key);
+        boolean current = descriptor != null && descriptor.isGeneration(laneRegistry.getGeneration());
+        if (current && descriptor.isDescriptorOf(instance)) {
+            return descriptor;
+        }
+        Map<String, String> metadata = instance.getMetadata();
+        String version = metadata.get(GrayConstant.HEADER_VERSION_GRAY);
+        String zone = metadata.get(GrayConstant.METADATA_ZONE);
+        String weight = metadata.get(GrayConstant.METADATA_WEIGHT);
+        if (!current || !descriptor.isRevision(version, zone, weight)) {
+            descriptor = GrayInstanceDescriptor.of(instance, key, laneRegistry, version, zone, weight);
+        } else {
+            // 元数据没有变化，只替换实例对象，下次同一个实例对象直接命中
+            descriptor = descriptor.withInstance(instance);
+        }
+        descriptors.put(key, descriptor);
+        return descriptor;
+    }
+
+    /**
+     * 只保留当前实例列表中的实例，其余视为已经下线
+     *
+     * @param instances 当前全部实例
+     */
+    public void retain(ServiceInstance[] instances) {
+        Set<String> keys = new HashSet<>(instances.length * 2);
+        for (ServiceInstance instance : instances) {
+            keys.add(GrayInstanceDescriptor.key(instance));
+        }
+        if (descriptors.keySet().retainAll(keys)) {
+            laneRegistry.onInstancesRemoved();
+        }
+    }
+
+    /**
+     * @param laneId 泳道ID
+     * @return 是否有实例属于该泳道
+     */
+    public boolean references(int laneId) {
+        for (GrayInstanceDescriptor descriptor : descriptors.values()) {
+            if (descriptor.getLaneId() == laneId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 泳道注册表
+     */
+    public GrayLaneRegistry getLaneRegistry() {
+        return laneRegistry;
+    }
+
+    /**
+     * @return 缓存的实例数量
+     */
+    public int size() {
+        return descriptors.size();
+    }
+}
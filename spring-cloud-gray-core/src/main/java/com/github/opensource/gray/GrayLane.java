@@ -0,0 +1,48 @@
+package com.github.opensource.gray;
+
+/**
+ * 灰度泳道，对应实例元数据和请求头中的version取值，例如base、gray、v2-alpha。
+ * <p>
+ * 泳道由{@link GrayLaneRegistry}统一驻留并分配从0开始的连续整数ID，
+ * 路由时按ID下标访问预先分好的实例数组，不再逐个比较字符串。同名泳道全局只有一个实例，可以直接用==比较。
+ *
+ * @author double
+ * @Date 2026/10/17 17:30
+ */
+public final class GrayLane {
+
+    private final int id;
+
+    private final String name;
+
+    GrayLane(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * @return 泳道ID，用作实例数组的下标
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return 泳道名称，即version的取值
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 是否为基线泳道
+     */
+    public boolean isBase() {
+        return id == GrayLaneRegistry.BASE_ID;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
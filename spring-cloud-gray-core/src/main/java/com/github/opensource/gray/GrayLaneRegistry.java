@@ -0,0 +1,381 @@
+package com.github.opensource.gray;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 灰度泳道注册表，将泳道名称驻留为{@link GrayLane}并分配整数ID，同时维护泳道的降级链。
+ * <p>
+ * 泳道只从配置中声明（base、gray、spring.cloud.loadbalancer.gray.lanes以及降级关系中出现的泳道），
+ * 实例元数据和请求头中的取值只做查找，不会驻留：元数据中未声明的version（例如Nacos的version: 1.0.0）属于基线泳道，
+ * 与只区分gray的行为一致，避免普通的发布版本号把实例从基线中拆出去。
+ * <p>
+ * 泳道数量有上限，超出后声明的泳道不再驻留，其实例被隔离（{@link #QUARANTINE_ID}），不参与任何路由，
+ * 不会落到基线泳道上承接生产流量。配置中不再声明、也没有实例引用的泳道会被淘汰，泳道ID在注册表满时复用。
+ * 泳道新增或淘汰时{@link #getGeneration() 代数}加一，按泳道ID缓存的实例描述和分区快照据此失效。
+ * <p>
+ * 降级链：某个泳道没有可用实例时，依次尝试其降级泳道。未配置时，基线以外的泳道降级到gray，
+ * gray降级到base，base是链的终点，例如v2-beta → gray → base。
+ *
+ * @author double
+ * @Date 2026/10/17 17:35
+ */
+@Slf4j
+public final class GrayLaneRegistry {
+
+    /**
+     * 基线泳道ID
+     */
+    public static final int BASE_ID = 0;
+
+    /**
+     * 灰度泳道ID
+     */
+    public static final int GRAY_ID = 1;
+
+    /**
+     * 没有降级泳道
+     */
+    public static final int NO_FALLBACK = -1;
+
+    /**
+     * 隔离：声明的泳道因为注册表已满没有驻留，其实例不参与任何路由
+     */
+    public static final int QUARANTINE_ID = -2;
+
+    /**
+     * 泳道数量上限
+     */
+    public static final int MAX_LANES = 256;
+
+    private static final GrayLaneRegistry INSTANCE = new GrayLaneRegistry(MAX_LANES);
+
+    private final int maxLanes;
+
+    private final Map<String, GrayLane> lanesByName = new ConcurrentHashMap<>();
+
+    private volatile GrayLane[] lanes = new GrayLane[0];
+
+    private volatile int[] fallbacks = new int[0];
+
+    /**
+     * 显式配置的降级关系，泳道名称 -> 降级泳道名称
+     */
+    private final Map<String, String> configuredFallbacks = new ConcurrentHashMap<>();
+
+    /**
+     * 配置中声明的泳道名称，包括因为注册表已满而没有驻留的
+     */
+    private final Set<String> declared = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 各服务的实例描述缓存，淘汰泳道前检查是否仍有实例引用
+     */
+    private final Set<GrayInstanceDescriptors> holders = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private volatile int generation;
+
+    /**
+     * 是否有已经不再声明、等待实例下线后淘汰的泳道
+     */
+    private volatile boolean evictionPending;
+
+    GrayLaneRegistry(int maxLanes) {
+        this.maxLanes = Math.min(Math.max(maxLanes, GRAY_ID + 1), MAX_LANES);
+        declare(GrayConstant.HEADER_VERSION_FLAG_BASE);
+        declare(GrayConstant.HEADER_VERSION_FLAG_GRAY);
+    }
+
+    /**
+     * @return 全局共享的泳道注册表
+     */
+    public static GrayLaneRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return 基线泳道
+     */
+    public GrayLane base() {
+        return lanes[BASE_ID];
+    }
+
+    /**
+     * @return 灰度泳道
+     */
+    public GrayLane gray() {
+        return lanes[GRAY_ID];
+    }
+
+    /**
+     * 查找已驻留的泳道，不会驻留新的泳道，用于请求路径
+     *
+     * @param name 泳道名称
+     * @return 未驻留时返回null
+     */
+    public GrayLane find(String name) {
+        return name == null ? null : lanesByName.get(name);
+    }
+
+    /**
+     * 按ID获取泳道
+     *
+     * @param id 泳道ID
+     * @return 泳道，已经淘汰时返回null
+     */
+    public GrayLane get(int id) {
+        GrayLane[] current = this.lanes;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * @return 泳道ID的上界，泳道ID都小于该值
+     */
+    public int size() {
+        return lanes.length;
+    }
+
+    /**
+     * @return 泳道的代数，泳道新增或淘汰时加一
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 确定实例元数据中的version所属的泳道
+     *
+     * @param version version元数据
+     * @return 泳道ID：没有version或者version未声明时为{@link #BASE_ID}，声明了但注册表已满时为{@link #QUARANTINE_ID}
+     */
+    public int resolve(String version) {
+        if (StringUtils.isBlank(version)) {
+            return BASE_ID;
+        }
+        GrayLane lane = lanesByName.get(version);
+        if (lane != null) {
+            return lane.getId();
+        }
+        return declared.contains(version) ? QUARANTINE_ID : BASE_ID;
+    }
+
+    /**
+     * 声明泳道并驻留，用于配置
+     *
+     * @param name 泳道名称
+     * @return 泳道，名称为空或超出数量上限时返回null
+     */
+    public GrayLane declare(String name) {
+        if (StringUtils.isBlank(name)) {
+            return null;
+        }
+        GrayLane lane = lanesByName.get(name);
+        if (lane != null && declared.contains(name)) {
+            return lane;
+        }
+        synchronized (this) {
+            declared.add(name);
+            lane = lanesByName.get(name);
+            if (lane != null) {
+                return lane;
+            }
+            lane = intern(name);
+            if (lane == null) {
+                log.warn("Gray lane registry is full, quarantine instances of lane: {}", name);
+                // 实例可能已经按未声明的version归入基线，需要重新解析为隔离
+                generation++;
+                return null;
+            }
+            rebuildFallbacks();
+            generation++;
+            return lane;
+        }
+    }
+
+    /**
+     * 为泳道分配ID，注册表已满时返回null。调用方持有锁
+     */
+    private GrayLane intern(String name) {
+        GrayLane[] current = this.lanes;
+        int id = freeId(current);
+        if (id < 0) {
+            return null;
+        }
+        GrayLane lane = new GrayLane(id, name);
+        GrayLane[] grown = id < current.length ? current.clone() : Arrays.copyOf(current, current.length + 1);
+        grown[id] = lane;
+        this.lanes = grown;
+        lanesByName.put(name, lane);
+        return lane;
+    }
+
+    /**
+     * 取消泳道的声明，没有实例引用时立即淘汰，否则等实例下线后淘汰。base和gray不会被淘汰
+     *
+     * @param name 泳道名称
+     */
+    public synchronized void undeclare(String name) {
+        if (isBuiltIn(name) || !declared.remove(name)) {
+            return;
+        }
+        if (lanesByName.containsKey(name)) {
+            evictionPending = true;
+            evictUnreferenced();
+        } else {
+            // 注册表已满时没有驻留的泳道，其实例按未声明的version归入基线，需要重新解析
+            generation++;
+        }
+    }
+
+    /**
+     * @param name 泳道名称
+     * @return 是否在配置中声明
+     */
+    public boolean isDeclared(String name) {
+        return name != null && declared.contains(name);
+    }
+
+    /**
+     * 登记服务的实例描述缓存，淘汰泳道前检查其中是否仍有实例引用该泳道
+     *
+     * @param descriptors 实例描述缓存
+     */
+    synchronized void register(GrayInstanceDescriptors descriptors) {
+        holders.add(descriptors);
+    }
+
+    /**
+     * 实例下线后调用，淘汰已经不再声明、也没有实例引用的泳道
+     */
+    void onInstancesRemoved() {
+        if (evictionPending) {
+            evictUnreferenced();
+        }
+    }
+
+    private synchronized void evictUnreferenced() {
+        GrayLane[] current = this.lanes;
+        GrayLane[] evicted = null;
+        boolean pending = false;
+        for (GrayLane lane : current) {
+            if (lane == null || isBuiltIn(lane.getName()) || declared.contains(lane.getName())) {
+                continue;
+            }
+            if (isReferenced(lane.getId())) {
+                pending = true;
+                continue;
+            }
+            if (evicted == null) {
+                evicted = current.clone();
+            }
+            evicted[lane.getId()] = null;
+            lanesByName.remove(lane.getName());
+            log.info("Evict gray lane: {}", lane.getName());
+        }
+        this.evictionPending = pending;
+        if (evicted != null) {
+            this.lanes = evicted;
+            // 腾出的ID优先分配给因为注册表已满而被隔离的泳道
+            for (String name : declared) {
+                if (!lanesByName.containsKey(name) && intern(name) == null) {
+                    break;
+                }
+            }
+            rebuildFallbacks();
+            generation++;
+        }
+    }
+
+    private boolean isReferenced(int laneId) {
+        for (GrayInstanceDescriptors descriptors : holders) {
+            if (descriptors.references(laneId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 新泳道的ID：注册表未满时追加，满了以后复用已经淘汰的ID，尽量避免ID复用
+     */
+    private int freeId(GrayLane[] current) {
+        if (current.length < maxLanes) {
+            return current.length;
+        }
+        for (int i = GRAY_ID + 1; i < current.length; i++) {
+            if (current[i] == null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBuiltIn(String name) {
+        return GrayConstant.HEADER_VERSION_FLAG_BASE.equals(name) || GrayConstant.HEADER_VERSION_FLAG_GRAY.equals(name);
+    }
+
+    /**
+     * 配置泳道的降级泳道，两个泳道都会被声明
+     *
+     * @param name     泳道名称
+     * @param fallback 降级泳道名称
+     */
+    public synchronized void setFallback(String name, String fallback) {
+        declare(name);
+        declare(fallback);
+        configuredFallbacks.put(name, fallback);
+        rebuildFallbacks();
+    }
+
+    /**
+     * 移除泳道显式配置的降级泳道，恢复默认的降级关系
+     *
+     * @param name 泳道名称
+     */
+    public synchronized void removeFallback(String name) {
+        if (configuredFallbacks.remove(name) != null) {
+            rebuildFallbacks();
+        }
+    }
+
+    /**
+     * 获取泳道的降级泳道ID
+     *
+     * @param id 泳道ID
+     * @return 降级泳道ID，没有时返回{@link #NO_FALLBACK}
+     */
+    public int fallbackOf(int id) {
+        int[] current = this.fallbacks;
+        return id < current.length ? current[id] : NO_FALLBACK;
+    }
+
+    private void rebuildFallbacks() {
+        GrayLane[] current = this.lanes;
+        int[] rebuilt = new int[current.length];
+        for (GrayLane lane : current) {
+            if (lane == null) {
+                continue;
+            }
+            int fallback;
+            GrayLane configured = lanesByName.get(configuredFallbacks.getOrDefault(lane.getName(), ""));
+            if (configured != null && configured != lane) {
+                fallback = configured.getId();
+            } else if (lane.getId() == BASE_ID) {
+                fallback = NO_FALLBACK;
+            } else if (lane.getId() == GRAY_ID) {
+                fallback = BASE_ID;
+            } else {
+                fallback = GRAY_ID;
+            }
+            rebuilt[lane.getId()] = fallback;
+        }
+        this.fallbacks = rebuilt;
+    }
+}
@@ -1,5 +1,8 @@
 package com.github.opensource.gray;
 
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
 /**
  *  该类用于管理灰度请求的上下文信息。
  *  它提供了一种在当前线程中存储和获取灰度版本标签的方法，
@@ -10,15 +13,25 @@ package com.github.opensource.gray;
  */
 public class GrayRequestContextHolder {
     /**
-     * 用于存储当前线程的灰度版本标签的ThreadLocal变量。
+     * 用于存储当前线程的灰度路由上下文（灰度版本标签及其解析结果）的ThreadLocal变量。
      */
-    private static final ThreadLocal<String> VERSION_GARY_TAG = new ThreadLocal<>();
+    private static final ThreadLocal<GrayRoutingContext> VERSION_GARY_TAG = new ThreadLocal<>();
 
     public static void setGrayTag(final String tag) {
-        VERSION_GARY_TAG.set(tag);
+        set(tag == null ? null : GrayRoutingContext.of(tag));
     }
 
     public static String getGrayTag() {
+        GrayRoutingContext context = VERSION_GARY_TAG.get();
+        return context == null ? null : context.getGrayTag();
+    }
+
+    /**
+     * 获取当前请求的灰度路由上下文，请求内的出站调用共享同一个实例，灰度决策只解析一次
+     *
+     * @return 灰度路由上下文，没有灰度标签时返回null
+     */
+    public static GrayRoutingContext getRoutingContext() {
         return VERSION_GARY_TAG.get();
     }
 
@@ -28,4 +41,98 @@ public class GrayRequestContextHolder {
     public static void remove() {
         VERSION_GARY_TAG.remove();
     }
+
+    /**
+     * 在指定的灰度版本标签下执行任务，执行完成后恢复当前线程原来的标签。
+     * 语义与ScopedValue.where(...).run(...)一致，适用于线程池和虚拟线程。
+     *
+     * @param tag  灰度版本标签，可以为null
+     * @param task 任务
+     */
+    public static void runWithGrayTag(final String tag, final Runnable task) {
+        runWithRoutingContext(tag == null ? null : GrayRoutingContext.of(tag), task);
+    }
+
+    /**
+     * 在指定的灰度路由上下文中执行任务，执行完成后恢复当前线程原来的上下文
+     *
+     * @param context 灰度路由上下文，可以为null
+     * @param task    任务
+     */
+    public static void runWithRoutingContext(final GrayRoutingContext context, final Runnable task) {
+        GrayRoutingContext previous = VERSION_GARY_TAG.get();
+        set(context);
+        try {
+            task.run();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * 在指定的灰度版本标签下执行任务并返回结果，执行完成后恢复当前线程原来的标签。
+     *
+     * @param tag  灰度版本标签，可以为null
+     * @param task 任务
+     * @return 任务结果
+     * @throws Exception 任务抛出的异常
+     */
+    public static <T> T callWithGrayTag(final String tag, final Callable<T> task) throws Exception {
+        return callWithRoutingContext(tag == null ? null : GrayRoutingContext.of(tag), task);
+    }
+
+    /**
+     * 在指定的灰度路由上下文中执行任务并返回结果，执行完成后恢复当前线程原来的上下文
+     *
+     * @param context 灰度路由上下文，可以为null
+     * @param task    任务
+     * @return 任务结果
+     * @throws Exception 任务抛出的异常
+     */
+    public static <T> T callWithRoutingContext(final GrayRoutingContext context, final Callable<T> task)
+            throws Exception {
+        GrayRoutingContext previous = VERSION_GARY_TAG.get();
+        set(context);
+        try {
+            return task.call();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * 在指定的灰度版本标签下执行任务并返回结果，执行完成后恢复当前线程原来的标签。
+     *
+     * @param tag  灰度版本标签，可以为null
+     * @param task 任务
+     * @return 任务结果
+     */
+    public static <T> T supplyWithGrayTag(final String tag, final Supplier<T> task) {
+        return supplyWithRoutingContext(tag == null ? null : GrayRoutingContext.of(tag), task);
+    }
+
+    /**
+     * 在指定的灰度路由上下文中执行任务并返回结果，执行完成后恢复当前线程原来的上下文
+     *
+     * @param context 灰度路由上下文，可以为null
+     * @param task    任务
+     * @return 任务结果
+     */
+    public static <T> T supplyWithRoutingContext(final GrayRoutingContext context, final Supplier<T> task) {
+        GrayRoutingContext previous = VERSION_GARY_TAG.get();
+        set(context);
+        try {
+            return task.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    private static void set(final GrayRoutingContext context) {
+        if (context == null) {
+            VERSION_GARY_TAG.remove();
+        } else {
+            VERSION_GARY_TAG.set(context);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package com.github.opensource.gray;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 灰度请求分类计数，按lane打标签。网关、webmvc和feign使用指标gray.requests，并以component区分。
+ * <p>
+ * 基线和灰度泳道的计数器在构造时注册，其它泳道首次出现时注册一次，之后按泳道ID从数组中取，
+ * 请求路径上不会访问MeterRegistry。泳道淘汰后ID可能分配给新的泳道，因此缓存的计数器同时比较泳道对象。应用中没有MeterRegistry时使用{@link #NOOP}。
+ *
+ * @author double
+ * @Date 2026/10/17 19:10
+ */
+public final class GrayRequestMetrics {
+
+    /**
+     * 入口请求分类计数的指标名称
+     */
+    public static final String REQUESTS = "gray.requests";
+
+    /**
+     * 不记录指标
+     */
+    public static final GrayRequestMetrics NOOP = new GrayRequestMetrics(null, REQUESTS, Tags.empty());
+
+    private final MeterRegistry meterRegistry;
+
+    private final String name;
+
+    private final Tags tags;
+
+    private final GrayLaneRegistry laneRegistry = GrayLaneRegistry.getInstance();
+
+    private final AtomicReferenceArray<LaneCounter> counters = new AtomicReferenceArray<>(GrayLaneRegistry.MAX_LANES);
+
+    private GrayRequestMetrics(MeterRegistry meterRegistry, String name, Tags tags) {
+        this.meterRegistry = meterRegistry;
+        this.name = name;
+        this.tags = tags;
+        if (meterRegistry != null) {
+            counter(laneRegistry.base());
+            counter(laneRegistry.gray());
+        }
+    }
+
+    /**
+     * @param meterRegistry 指标注册表，为null时返回{@link #NOOP}
+     * @param component     组件名称，例如gateway
+     * @return 指标名称为{@link #REQUESTS}的灰度请求分类计数
+     */
+    public static GrayRequestMetrics of(MeterRegistry meterRegistry, String component) {
+        return of(meterRegistry, REQUESTS, Tags.of("component", component));
+    }
+
+    /**
+     * @param meterRegistry 指标注册表，为null时返回{@link #NOOP}
+     * @param name          指标名称，同名指标的标签键必须一致
+     * @param tags          公共标签
+     * @return 灰度请求分类计数
+     */
+    public static GrayRequestMetrics of(MeterRegistry meterRegistry, String name, Tags tags) {
+        return meterRegistry == null ? NOOP : new GrayRequestMetrics(meterRegistry, name, tags);
+    }
+
+    /**
+     * 记录一次请求分类
+     *
+     * @param tag 灰度标记，为空或未驻留时记为基线
+     */
+    public void record(String tag) {
+        if (meterRegistry == null) {
+            return;
+        }
+        GrayLane lane = laneRegistry.find(tag);
+        counter(lane != null ? lane : laneRegistry.base()).increment();
+    }
+
+    /**
+     * 记录一次请求分类
+     *
+     * @param lane 请求所属的泳道
+     */
+    public void record(GrayLane lane) {
+        if (meterRegistry == null) {
+            return;
+        }
+        counter(lane).increment();
+    }
+
+    private Counter counter(GrayLane lane) {
+        LaneCounter cached = counters.get(lane.getId());
+        if (cached == null || cached.lane != lane) {
+            cached = new LaneCounter(lane, Counter.builder(name)
+                    .description("Requests classified into gray lanes")
+                    .tags(tags)
+                    .tag("lane", lane.getName())
+                    .register(meterRegistry));
+            counters.set(lane.getId(), cached);
+        }
+        return cached.counter;
+    }
+
+    /**
+     * 泳道及其计数器
+     */
+    private static final class LaneCounter {
+
+        final GrayLane lane;
+
+        final Counter counter;
+
+        LaneCounter(GrayLane lane, Counter counter) {
+            this.lane = lane;
+            this.counter = counter;
+        }
+    }
+}
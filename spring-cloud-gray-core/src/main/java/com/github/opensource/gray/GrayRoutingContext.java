@@ -0,0 +1,57 @@
+package com.github.opensource.gray;
+
+/**
+ * 一次入站请求的灰度路由上下文：灰度标记以及由它解析出的{@link GrayDecision}。
+ * <p>
+ * 入站请求设置灰度标记时创建一次，保存在{@link GrayRequestContextHolder}中，
+ * 请求内的所有出站调用（Feign、负载均衡器）共享同一个实例，灰度决策只解析一次；
+ * 通过{@link GrayContextSnapshot}传递到异步线程时传递的也是同一个实例。
+ *
+ * @author double
+ * @Date 2026/10/17 23:05
+ */
+public final class GrayRoutingContext {
+
+    private final String grayTag;
+
+    /**
+     * 延迟解析的灰度决策，并发解析的结果相同，不需要同步
+     */
+    private GrayDecision decision;
+
+    private GrayRoutingContext(String grayTag) {
+        this.grayTag = grayTag;
+    }
+
+    /**
+     * @param grayTag 灰度标记，不能为null
+     * @return 路由上下文
+     */
+    public static GrayRoutingContext of(String grayTag) {
+        return new GrayRoutingContext(grayTag);
+    }
+
+    public String getGrayTag() {
+        return grayTag;
+    }
+
+    /**
+     * 获取灰度决策，第一次调用时解析并缓存。
+     * 灰度标记对应的泳道尚未驻留（还没有发现该版本的实例）时按基线返回，且不缓存，之后再次解析。
+     *
+     * @return 灰度决策
+     */
+    public GrayDecision getDecision() {
+        GrayDecision current = decision;
+        if (current == null) {
+            GrayLaneRegistry registry = GrayLaneRegistry.getInstance();
+            GrayLane lane = registry.find(grayTag);
+            if (lane == null) {
+                return GrayDecision.of(registry.base());
+            }
+            current = GrayDecision.of(lane);
+            decision = current;
+        }
+        return current;
+    }
+}
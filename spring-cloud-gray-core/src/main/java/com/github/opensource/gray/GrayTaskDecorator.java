@@ -0,0 +1,21 @@
+package com.github.opensource.gray;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 传递灰度上下文的TaskDecorator。
+ * <p>
+ * Spring Boot会将唯一的TaskDecorator应用到自动配置的applicationTaskExecutor上，
+ * 包括开启spring.threads.virtual.enabled后基于虚拟线程的SimpleAsyncTaskExecutor，
+ * 因此@Async方法以及使用该执行器的异步任务都能读取到提交线程的灰度标签。
+ *
+ * @author double
+ * @Date 2026/10/17 16:48
+ */
+public class GrayTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return GrayContextSnapshot.capture().wrap(runnable);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.opensource.gray;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * 将{@link GrayRequestContextHolder}注册为Micrometer context-propagation的ThreadLocalAccessor。
+ * <p>
+ * 通过META-INF/services自动注册到ContextRegistry，键为{@link GrayConstant#GRAY_TAG_ATTRIBUTE}。
+ * 开启Reactor自动上下文传播（spring.reactor.context-propagation=auto）后，
+ * Reactor Context中的灰度标记会在每个操作符执行前恢复到当前线程，执行后清除，
+ * 响应式链路上无需手动设置和清除ThreadLocal。
+ *
+ * @author double
+ * @Date 2026/10/17 16:05
+ */
+public class GrayThreadLocalAccessor implements ThreadLocalAccessor<String> {
+
+    @Override
+    public Object key() {
+        return GrayConstant.GRAY_TAG_ATTRIBUTE;
+    }
+
+    @Override
+    public String getValue() {
+        return GrayRequestContextHolder.getGrayTag();
+    }
+
+    @Override
+    public void setValue(String value) {
+        GrayRequestContextHolder.setGrayTag(value);
+    }
+
+    @Override
+    public void setValue() {
+        GrayRequestContextHolder.remove();
+    }
+}
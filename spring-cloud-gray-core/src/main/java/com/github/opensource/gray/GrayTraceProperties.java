@@ -0,0 +1,57 @@
+package com.github.opensource.gray;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 灰度决策追踪配置
+ *
+ * @author double
+ * @Date 2026/10/17 20:30
+ */
+@ConfigurationProperties("spring.cloud.loadbalancer.gray.trace")
+@Data
+public class GrayTraceProperties {
+
+    /**
+     * 是否记录灰度决策事件
+     */
+    private boolean enabled;
+
+    /**
+     * 采样率，取值0~1，例如0.01表示记录1%的决策
+     */
+    private double sampleRate = 0.01;
+
+    /**
+     * 环形缓冲区容量，向上取整为2的幂，缓冲区满时丢弃事件
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * 每批输出的最大事件数
+     */
+    private int batchSize = 256;
+
+    /**
+     * 后台输出的间隔
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * graydecisions端点保留的最近事件数
+     */
+    private int recentSize = 256;
+
+    /**
+     * 是否将事件输出到日志
+     */
+    private boolean log;
+
+    /**
+     * 是否按组件、泳道和决策原因记录指标gray.decisions
+     */
+    private boolean metrics = true;
+}
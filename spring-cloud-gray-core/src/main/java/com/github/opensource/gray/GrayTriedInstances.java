@@ -0,0 +1,71 @@
+package com.github.opensource.gray;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个请求已经尝试过的实例，保存在请求attributes中，重试和对冲请求选择实例时排除这些实例。
+ * <p>
+ * 普通请求不会创建该对象：负载均衡器在重试时（RetryableRequestContext带有上一次的实例）才创建，
+ * 对冲请求则由发起对冲的过滤器预先放入，主请求和对冲请求共享同一个实例，对冲请求因此不会落到主请求的实例上。
+ *
+ * @author double
+ * @Date 2026/10/17 21:45
+ */
+public final class GrayTriedInstances {
+
+    /**
+     * 请求attributes中的键
+     */
+    public static final String ATTRIBUTE = GrayTriedInstances.class.getName();
+
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param instance 已经尝试过的实例
+     */
+    public void add(ServiceInstance instance) {
+        keys.add(GrayInstanceDescriptor.key(instance));
+    }
+
+    /**
+     * @param instance 实例
+     * @return 是否已经尝试过
+     */
+    public boolean contains(ServiceInstance instance) {
+        return keys.contains(GrayInstanceDescriptor.key(instance));
+    }
+
+    /**
+     * @return 是否还没有尝试过任何实例
+     */
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * @param candidates 候选实例
+     * @return 排除已经尝试过的实例后的候选实例，没有需要排除的实例时返回原数组
+     */
+    public ServiceInstance[] exclude(ServiceInstance[] candidates) {
+        if (keys.isEmpty()) {
+            return candidates;
+        }
+        List<ServiceInstance> remaining = new ArrayList<>(candidates.length);
+        for (ServiceInstance candidate : candidates) {
+            if (!contains(candidate)) {
+                remaining.add(candidate);
+            }
+        }
+        return remaining.size() == candidates.length ? candidates : remaining.toArray(new ServiceInstance[0]);
+    }
+
+    @Override
+    public String toString() {
+        return keys.toString();
+    }
+}
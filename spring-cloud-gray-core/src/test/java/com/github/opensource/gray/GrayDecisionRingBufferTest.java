@@ -0,0 +1,172 @@
+package com.github.opensource.gray;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 多生产者单消费者环形缓冲区：容量以内不丢失、不重复，满时丢弃并计数，序号回绕后继续可用
+ *
+ * @author double
+ * @Date 2026/10/18 00:20
+ */
+class GrayDecisionRingBufferTest {
+
+    private static final int PRODUCERS = 8;
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new GrayDecisionRingBuffer(5).capacity()).isEqualTo(8);
+        assertThat(new GrayDecisionRingBuffer(8).capacity()).isEqualTo(8);
+        assertThat(new GrayDecisionRingBuffer(0).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void multipleProducersBelowCapacityLoseNothing() throws Exception {
+        int perProducer = 500;
+        GrayDecisionRingBuffer buffer = new GrayDecisionRingBuffer(PRODUCERS * perProducer);
+
+        int dropped = produce(buffer, perProducer, new AtomicBoolean());
+
+        List<GrayDecisionEvent> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, Integer.MAX_VALUE)).isEqualTo(PRODUCERS * perProducer);
+        assertThat(dropped).isZero();
+        assertThat(keys(drained)).hasSize(PRODUCERS * perProducer);
+        // 同一个生产者写入的事件按写入顺序取出
+        Map<String, Integer> last = new HashMap<>();
+        for (GrayDecisionEvent event : drained) {
+            int sequence = Integer.parseInt(event.getInstance());
+            assertThat(sequence).isGreaterThan(last.getOrDefault(event.getServiceId(), -1));
+            last.put(event.getServiceId(), sequence);
+        }
+        assertThat(buffer.drain(drained::add, Integer.MAX_VALUE)).isZero();
+    }
+
+    @Test
+    void concurrentDrainNeitherLosesNorDuplicates() throws Exception {
+        int perProducer = 20_000;
+        GrayDecisionRingBuffer buffer = new GrayDecisionRingBuffer(64);
+        List<GrayDecisionEvent> drained = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (producing.get()) {
+                if (buffer.drain(drained::add, 16) == 0) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        consumer.start();
+
+        int dropped = produce(buffer, perProducer, producing);
+        consumer.join(TimeUnit.SECONDS.toMillis(10));
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertThat(drained.size() + dropped).isEqualTo(PRODUCERS * perProducer);
+        assertThat(keys(drained)).hasSize(drained.size());
+    }
+
+    @Test
+    void offerFailsWhenFull() {
+        GrayDecisionRingBuffer buffer = new GrayDecisionRingBuffer(8);
+        int accepted = 0;
+        int dropped = 0;
+        for (int i = 0; i < 12; i++) {
+            if (buffer.offer(event("p", i))) {
+                accepted++;
+            } else {
+                dropped++;
+            }
+        }
+        assertThat(accepted).isEqualTo(8);
+        assertThat(dropped).isEqualTo(4);
+
+        List<GrayDecisionEvent> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 3)).isEqualTo(3);
+        assertThat(drained).extracting(GrayDecisionEvent::getInstance).containsExactly("0", "1", "2");
+        // 取出后腾出的槽位可以继续写入
+        assertThat(buffer.offer(event("p", 100))).isTrue();
+    }
+
+    @Test
+    void wrapsAroundManyTimes() {
+        GrayDecisionRingBuffer buffer = new GrayDecisionRingBuffer(4);
+        int next = 0;
+        for (int round = 0; round < 1_000; round++) {
+            int count = round % 4 + 1;
+            for (int i = 0; i < count; i++) {
+                assertThat(buffer.offer(event("p", next + i))).isTrue();
+            }
+            List<GrayDecisionEvent> drained = new ArrayList<>();
+            assertThat(buffer.drain(drained::add, Integer.MAX_VALUE)).isEqualTo(count);
+            for (GrayDecisionEvent event : drained) {
+                assertThat(event.getInstance()).isEqualTo(String.valueOf(next++));
+            }
+        }
+    }
+
+    /**
+     * 多个生产者并发写入，结束后将running置为false
+     *
+     * @return 丢弃的事件数
+     */
+    private static int produce(GrayDecisionRingBuffer buffer, int perProducer, AtomicBoolean running)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger dropped = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                String producer = "producer-" + p;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        if (!buffer.offer(event(producer, i))) {
+                            dropped.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+        return dropped.get();
+    }
+
+    private static Set<String> keys(List<GrayDecisionEvent> events) {
+        Set<String> keys = new HashSet<>();
+        for (GrayDecisionEvent event : events) {
+            keys.add(event.getServiceId() + "#" + event.getInstance());
+        }
+        return keys;
+    }
+
+    private static GrayDecisionEvent event(String producer, int sequence) {
+        return GrayDecisionEvent.builder()
+                .component("test")
+                .serviceId(producer)
+                .instance(String.valueOf(sequence))
+                .build();
+    }
+}
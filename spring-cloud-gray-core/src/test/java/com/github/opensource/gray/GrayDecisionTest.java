@@ -0,0 +1,43 @@
+package com.github.opensource.gray;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 按泳道共享的路由决策：同一个泳道复用同一个实例，泳道ID复用后不会返回已淘汰泳道的决策
+ *
+ * @author double
+ * @Date 2026/10/18 09:10
+ */
+class GrayDecisionTest {
+
+    @Test
+    void sharedPerLane() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(8);
+
+        assertThat(GrayDecision.of(registry.gray())).isSameAs(GrayDecision.of(registry.gray()));
+        assertThat(GrayDecision.of(registry.gray()).getLane()).isSameAs(registry.gray());
+        assertThat(GrayDecision.of(registry.gray(), "user-id", null)).isSameAs(GrayDecision.of(registry.gray()));
+    }
+
+    @Test
+    void reusedLaneIdGetsItsOwnDecision() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(3);
+        GrayLane alpha = registry.declare("v2-alpha");
+        GrayDecision alphaDecision = GrayDecision.of(alpha);
+        assertThat(alphaDecision.getLane()).isSameAs(alpha);
+        assertThat(registry.declare("v2-beta")).isNull();
+
+        // 没有实例引用，立即淘汰，ID分配给被隔离的v2-beta
+        registry.undeclare("v2-alpha");
+        GrayLane beta = registry.find("v2-beta");
+        assertThat(beta).isNotNull();
+        assertThat(beta.getId()).isEqualTo(alpha.getId());
+
+        GrayDecision betaDecision = GrayDecision.of(beta);
+        assertThat(betaDecision).isNotSameAs(alphaDecision);
+        assertThat(betaDecision.getLane()).isSameAs(beta);
+        assertThat(GrayDecision.of(beta)).isSameAs(betaDecision);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.opensource.gray;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 泳道注册表：未声明的version归入基线，超出上限的泳道隔离，不再声明且没有实例引用的泳道淘汰
+ *
+ * @author double
+ * @Date 2026/10/17 23:55
+ */
+class GrayLaneRegistryTest {
+
+    @Test
+    void undeclaredVersionBelongsToBase() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(8);
+
+        assertThat(registry.resolve(null)).isEqualTo(GrayLaneRegistry.BASE_ID);
+        assertThat(registry.resolve("1.0.0")).isEqualTo(GrayLaneRegistry.BASE_ID);
+        assertThat(registry.resolve("gray")).isEqualTo(GrayLaneRegistry.GRAY_ID);
+        assertThat(registry.find("1.0.0")).isNull();
+    }
+
+    @Test
+    void declaredLaneIsResolved() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(8);
+        GrayLane alpha = registry.declare("v2-alpha");
+
+        assertThat(alpha).isNotNull();
+        assertThat(registry.resolve("v2-alpha")).isEqualTo(alpha.getId());
+        assertThat(registry.fallbackOf(alpha.getId())).isEqualTo(GrayLaneRegistry.GRAY_ID);
+    }
+
+    @Test
+    void overflowLaneIsQuarantined() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(3);
+        assertThat(registry.declare("v2-alpha")).isNotNull();
+
+        assertThat(registry.declare("v2-beta")).isNull();
+        assertThat(registry.isDeclared("v2-beta")).isTrue();
+        assertThat(registry.resolve("v2-beta")).isEqualTo(GrayLaneRegistry.QUARANTINE_ID);
+
+        GrayInstanceDescriptors descriptors = new GrayInstanceDescriptors(registry);
+        assertThat(descriptors.get(instance("beta-1", "v2-beta")).getLaneId())
+                .isEqualTo(GrayLaneRegistry.QUARANTINE_ID);
+    }
+
+    @Test
+    void undeclaredLaneIsEvictedOnceUnreferenced() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(8);
+        GrayLane alpha = registry.declare("v2-alpha");
+        GrayInstanceDescriptors descriptors = new GrayInstanceDescriptors(registry);
+        ServiceInstance instance = instance("alpha-1", "v2-alpha");
+        assertThat(descriptors.get(instance).getLaneId()).isEqualTo(alpha.getId());
+
+        registry.undeclare("v2-alpha");
+        // 仍有实例引用时保留，实例不会并入基线
+        assertThat(registry.get(alpha.getId())).isSameAs(alpha);
+        assertThat(descriptors.get(instance).getLaneId()).isEqualTo(alpha.getId());
+
+        int generation = registry.getGeneration();
+        descriptors.retain(new ServiceInstance[0]);
+        assertThat(registry.get(alpha.getId())).isNull();
+        assertThat(registry.find("v2-alpha")).isNull();
+        assertThat(registry.getGeneration()).isGreaterThan(generation);
+    }
+
+    @Test
+    void builtInLanesAreNeverEvicted() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(8);
+        registry.undeclare("gray");
+        registry.undeclare("base");
+
+        assertThat(registry.gray()).isNotNull();
+        assertThat(registry.base()).isNotNull();
+        assertThat(registry.resolve("gray")).isEqualTo(GrayLaneRegistry.GRAY_ID);
+    }
+
+    @Test
+    void evictedIdIsReassignedToQuarantinedLane() {
+        GrayLaneRegistry registry = new GrayLaneRegistry(3);
+        GrayLane alpha = registry.declare("v2-alpha");
+        assertThat(registry.declare("v2-beta")).isNull();
+        GrayInstanceDescriptors descriptors = new GrayInstanceDescriptors(registry);
+        ServiceInstance beta = instance("beta-1", "v2-beta");
+        assertThat(descriptors.get(beta).getLaneId()).isEqualTo(GrayLaneRegistry.QUARANTINE_ID);
+
+        registry.undeclare("v2-alpha");
+
+        GrayLane reassigned = registry.find("v2-beta");
+        assertThat(reassigned).isNotNull();
+        assertThat(reassigned.getId()).isEqualTo(alpha.getId());
+        assertThat(registry.get(alpha.getId())).isSameAs(reassigned);
+        // 代数变化后缓存的实例描述重新解析
+        assertThat(descriptors.get(beta).getLaneId()).isEqualTo(reassigned.getId());
+    }
+
+    private static ServiceInstance instance(String instanceId, String version) {
+        return new DefaultServiceInstance(instanceId, "user-service", instanceId, 8080, false,
+                Map.of(GrayConstant.HEADER_VERSION_GRAY, version));
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.opensource.gray.gateway;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 网关的灰度路由配置快照：灰度开关、编译后的灰度规则以及粘性请求头，由{@link GrayProperties}绑定而来，创建后不再变化。
+ * <p>
+ * 网关过滤器在请求路径上只读取一次当前快照，不再经过@RefreshScope代理访问配置对象。
+ * 配置刷新时规则表达式没有变化则沿用已经编译好的规则，不重新编译。
+ *
+ * @author double
+ * @Date 2026/10/17 23:50
+ */
+@Slf4j
+public final class GrayGatewayRoutingConfig {
+
+    private static final GrayRule[] NO_RULES = new GrayRule[0];
+
+    private static final String[] NO_EXPRESSIONS = new String[0];
+
+    private final boolean enabled;
+
+    private final String stickyHeader;
+
+    /**
+     * 配置的规则表达式，用于判断刷新后规则是否变化
+     */
+    private final List<String> matches;
+
+    private final GrayRule[] rules;
+
+    /**
+     * 与rules按下标对应的规则表达式，不包含不合法的规则
+     */
+    private final String[] expressions;
+
+    private GrayGatewayRoutingConfig(boolean enabled, String stickyHeader, List<String> matches, GrayRule[] rules,
+                                     String[] expressions) {
+        this.enabled = enabled;
+        this.stickyHeader = stickyHeader;
+        this.matches = matches;
+        this.rules = rules;
+        this.expressions = expressions;
+    }
+
+    /**
+     * @param properties 网关灰度配置
+     * @return 配置快照
+     */
+    public static GrayGatewayRoutingConfig of(GrayProperties properties) {
+        return update(null, properties);
+    }
+
+    /**
+     * 按新的配置生成快照，规则表达式没有变化时沿用上一份快照中编译好的规则；整体没有变化时返回上一份快照
+     *
+     * @param previous   上一份快照，没有时为null
+     * @param properties 新绑定的网关灰度配置
+     * @return 配置快照
+     */
+    public static GrayGatewayRoutingConfig update(GrayGatewayRoutingConfig previous, GrayProperties properties) {
+        boolean enabled = Boolean.TRUE.equals(properties.getEnabled());
+        List<String> matches = new ArrayList<>();
+        if (properties.getMatches() != null) {
+            for (String expression : properties.getMatches()) {
+                // 配置中的空条目会绑定为null或空字符串，直接忽略
+                if (StringUtils.isNotBlank(expression)) {
+                    matches.add(expression);
+                }
+            }
+        }
+        if (previous != null && previous.matches.equals(matches)) {
+            if (previous.enabled == enabled && Objects.equals(previous.stickyHeader, properties.getStickyHeader())) {
+                return previous;
+            }
+            return new GrayGatewayRoutingConfig(enabled, properties.getStickyHeader(), previous.matches,
+                    previous.rules, previous.expressions);
+        }
+        List<GrayRule> compiled = new ArrayList<>(matches.size());
+        List<String> expressions = new ArrayList<>(matches.size());
+        for (String expression : matches) {
+            try {
+                compiled.add(GrayRuleCompiler.compile(expression));
+                expressions.add(expression);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignore illegal gray rule: {}", e.getMessage());
+            }
+        }
+        return new GrayGatewayRoutingConfig(enabled, properties.getStickyHeader(), List.copyOf(matches),
+                compiled.toArray(NO_RULES), expressions.toArray(NO_EXPRESSIONS));
+    }
+
+    /**
+     * 查找请求命中的第一条灰度规则
+     *
+     * @param request 网关请求
+     * @return 命中规则的表达式，没有命中时返回null
+     */
+    public String match(ServerHttpRequest request) {
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].matches(request)) {
+                return expressions[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 灰度开关
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return 粘性路由使用的请求头，未配置时为null
+     */
+    public String getStickyHeader() {
+        return stickyHeader;
+    }
+
+    /**
+     * @return 生效的规则数量
+     */
+    public int getRuleCount() {
+        return rules.length;
+    }
+}
@@ -1,14 +1,22 @@
 package com.github.opensource.gray.gateway;
 
 import com.github.opensource.gray.GrayConstant;
-import com.github.opensource.gray.GrayRequestContextHolder;
+import com.github.opensource.gray.GrayDecision;
+import com.github.opensource.gray.GrayDecisionEvent;
+import com.github.opensource.gray.GrayDecisionReason;
+import com.github.opensource.gray.GrayDecisionTracer;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import com.github.opensource.gray.GrayRequestMetrics;
 import lombok.AllArgsConstructor;
-import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.util.List;
 
@@ -21,15 +29,38 @@ import java.util.List;
 @AllArgsConstructor
 public class GrayGlobalFilter implements GlobalFilter, Ordered {
 
+    private static final Context GRAY_CONTEXT = Context.of(GrayConstant.GRAY_TAG_ATTRIBUTE, GrayConstant.HEADER_VERSION_FLAG_GRAY);
+
+    private static final Context BASE_CONTEXT = Context.of(GrayConstant.GRAY_TAG_ATTRIBUTE, GrayConstant.HEADER_VERSION_FLAG_BASE);
+
     /**
-     * 灰度配置属性，用于获取灰度规则。
+     * 发布网关灰度路由配置快照：灰度开关、编译后的灰度规则以及粘性请求头
      */
-    private final GrayProperties grayProperties;
+    private final GrayRuleEngine grayRuleEngine;
+
+    /**
+     * 按泳道的请求计数
+     */
+    private final GrayRequestMetrics grayRequestMetrics;
+
+    private final GrayLaneRegistry grayLaneRegistry = GrayLaneRegistry.getInstance();
+
+    private final GrayDecisionTracer grayDecisionTracer = GrayDecisionTracer.getInstance();
+
+    public GrayGlobalFilter(GrayRuleEngine grayRuleEngine) {
+        this(grayRuleEngine, GrayRequestMetrics.NOOP);
+    }
 
     /**
      * 处理请求的过滤逻辑。
-     * 如果灰度功能开启，并且请求头中包含灰度标记，则根据配置的灰度规则决定是否对请求进行灰度处理。
+     * 如果灰度功能开启，请求头version指定了泳道（gray或者v2-alpha等任意版本）时沿用该泳道，
+     * 否则命中配置的灰度规则时走gray泳道，其余请求走base泳道。
      * 处理过程中会修改请求头，添加灰度标记，以便后续的处理逻辑可以根据该标记进行相应的处理。
+     * 请求头已经是该灰度标记时不做修改，否则通过装饰器覆盖version请求头，不复制原始请求头。
+     * <p>
+     * 灰度标记同时写入exchange attributes和Reactor Context，负载均衡器以及在其它调度线程上执行的
+     * 操作符都从中读取，不再使用ThreadLocal在请求之间传递，避免Netty事件循环线程上的标记串用。
+     * 每个请求只读取一次配置快照，同一个请求内不会看到刷新到一半的配置。
      *
      * @param exchange 当前的交换机对象，包含请求和响应信息。
      * @param chain    过滤器链，用于继续处理过滤器链中的下一个过滤器。
@@ -37,33 +68,78 @@ public class GrayGlobalFilter implements GlobalFilter, Ordered {
      */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        try {
-            GrayRequestContextHolder.setGrayTag(GrayConstant.HEADER_VERSION_FLAG_BASE);
-            if (Boolean.TRUE.equals(grayProperties.getEnabled())) {
-                var headers = exchange.getRequest().getHeaders();
-                if (headers.containsKey(GrayConstant.HEADER_VERSION_GRAY)) {
-                    List<String> grayValues = headers.get(GrayConstant.HEADER_VERSION_GRAY);
-                    if (CollectionUtils.isNotEmpty(grayValues) && CollectionUtils.containsAny(grayValues, GrayConstant.HEADER_VERSION_FLAG_GRAY)) {
-                        // 如果匹配成功，更新灰度标记为具体的灰度版本标记
-                        GrayRequestContextHolder.setGrayTag(GrayConstant.HEADER_VERSION_FLAG_GRAY);
-                    }
-                }
-                // 修改请求头，添加灰度版本标记
-                var newRequest = exchange.getRequest().mutate()
-                        .header(GrayConstant.HEADER_VERSION_GRAY, GrayRequestContextHolder.getGrayTag())
-                        .build();
-                // 创建新的交换机对象，包含修改后的请求
-                var newExchange = exchange.mutate()
-                        .request(newRequest)
-                        .build();
-                return chain.filter(newExchange);
-            }
-            // 如果灰度功能未开启，直接继续处理下一个过滤器
+        GrayGatewayRoutingConfig config = grayRuleEngine.getConfig();
+        // 如果灰度功能未开启，直接继续处理下一个过滤器
+        if (!config.isEnabled()) {
             return chain.filter(exchange);
-        } finally {
-            // 请求处理完成后，清除灰度标记
-            GrayRequestContextHolder.remove();
         }
+        String grayTag = exchange.getRequest().getHeaders().getFirst(GrayConstant.HEADER_VERSION_GRAY);
+        String rule = null;
+        GrayDecisionReason reason = GrayDecisionReason.HEADER;
+        // 请求头中没有指定泳道时，按配置的灰度规则决定是否走灰度
+        if (StringUtils.isBlank(grayTag) || GrayConstant.HEADER_VERSION_FLAG_BASE.equals(grayTag)) {
+            rule = config.match(exchange.getRequest());
+            grayTag = rule != null ? GrayConstant.HEADER_VERSION_FLAG_GRAY : GrayConstant.HEADER_VERSION_FLAG_BASE;
+            reason = rule != null ? GrayDecisionReason.RULE : GrayDecisionReason.DEFAULT;
+        }
+        grayRequestMetrics.record(grayTag);
+        // 灰度标记和路由决策写入exchange attributes，负载均衡器通过RequestData的attributes读取，不再重复解析请求头
+        exchange.getAttributes().put(GrayConstant.GRAY_TAG_ATTRIBUTE, grayTag);
+        GrayLane lane = grayLaneRegistry.find(grayTag);
+        if (lane != null) {
+            exchange.getAttributes().put(GrayDecision.ATTRIBUTE, decision(lane, config.getStickyHeader(), exchange));
+        }
+        if (grayDecisionTracer.sample()) {
+            trace(grayTag, lane, rule, reason);
+        }
+        return chain.filter(withGrayHeader(exchange, grayTag)).contextWrite(context(grayTag));
+    }
+
+    /**
+     * 记录网关的灰度决策，只在被采样时调用
+     */
+    private void trace(String grayTag, GrayLane lane, String rule, GrayDecisionReason reason) {
+        grayDecisionTracer.record(GrayDecisionEvent.builder()
+                .component("gateway")
+                .grayTag(grayTag)
+                .lane(lane == null ? null : lane.getName())
+                .rule(rule)
+                .reason(reason)
+                .build());
+    }
+
+    /**
+     * 配置了粘性请求头且请求中存在时，随决策带上其哈希
+     */
+    private static GrayDecision decision(GrayLane lane, String stickyHeader, ServerWebExchange exchange) {
+        if (stickyHeader == null) {
+            return GrayDecision.of(lane);
+        }
+        return GrayDecision.of(lane, stickyHeader, exchange.getRequest().getHeaders().getFirst(stickyHeader));
+    }
+
+    /**
+     * 请求头中的version已经是该灰度标记时直接使用原交换机对象；
+     * 否则只在原始请求头之上覆盖version，不复制整个请求头。
+     */
+    private static ServerWebExchange withGrayHeader(ServerWebExchange exchange, String grayTag) {
+        ServerHttpRequest request = exchange.getRequest();
+        List<String> versions = request.getHeaders().get(GrayConstant.HEADER_VERSION_GRAY);
+        if (versions != null && versions.size() == 1 && grayTag.equals(versions.get(0))) {
+            return exchange;
+        }
+        return new GrayServerWebExchange(exchange,
+                new GrayServerHttpRequest(request, GrayConstant.HEADER_VERSION_GRAY, grayTag));
+    }
+
+    private static Context context(String grayTag) {
+        if (GrayConstant.HEADER_VERSION_FLAG_GRAY.equals(grayTag)) {
+            return GRAY_CONTEXT;
+        }
+        if (GrayConstant.HEADER_VERSION_FLAG_BASE.equals(grayTag)) {
+            return BASE_CONTEXT;
+        }
+        return Context.of(GrayConstant.GRAY_TAG_ATTRIBUTE, grayTag);
     }
 
     /**
@@ -1,14 +1,18 @@
 package com.github.opensource.gray.gateway;
 
+import com.github.opensource.gray.GrayRequestMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * 该配置类用于启用和配置灰度流量的网关全局过滤器。
+ * 过滤器始终创建，是否处理灰度由配置快照中的开关逐个请求决定，启动时关闭的灰度功能可以通过配置刷新开启。
  * @author double
  * @Date 2024/7/22 20:02
  */
@@ -17,9 +21,14 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class GrayGlobalFilterConfiguration {
 
-    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true")
     @Bean
-    public GrayGlobalFilter grayFilter(GrayProperties grayProperties) {
-        return new GrayGlobalFilter(grayProperties);
+    public GrayRuleEngine grayRuleEngine(GrayProperties grayProperties, Environment environment) {
+        return new GrayRuleEngine(grayProperties, environment);
+    }
+
+    @Bean
+    public GrayGlobalFilter grayFilter(GrayRuleEngine grayRuleEngine, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GrayGlobalFilter(grayRuleEngine,
+                GrayRequestMetrics.of(meterRegistry.getIfAvailable(), "gateway"));
     }
 }
@@ -0,0 +1,201 @@
+package com.github.opensource.gray.gateway;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MultiValueMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 在原始请求头之上覆盖一个请求头的只读视图，不复制原始请求头。
+ * <p>
+ * 覆盖的请求头名称不区分大小写，读取时优先返回覆盖值，其余请求头直接读原始请求头。
+ * 下游过滤器如果修改请求头，首次修改时才把原始请求头和覆盖值复制为可写的HttpHeaders，之后所有操作都作用在副本上。
+ *
+ * @author double
+ * @Date 2026/10/17 20:50
+ */
+public final class GrayHeaderOverlay extends AbstractMap<String, List<String>> implements MultiValueMap<String, String> {
+
+    private MultiValueMap<String, String> delegate;
+
+    /**
+     * 覆盖的请求头名称，复制为可写副本后为null
+     */
+    private String name;
+
+    private final List<String> value;
+
+    /**
+     * 原始请求头中是否已经存在该请求头（值不同）
+     */
+    private boolean shadowed;
+
+    public GrayHeaderOverlay(HttpHeaders delegate, String name, String value) {
+        this.delegate = delegate;
+        this.name = name;
+        this.value = List.of(value);
+        this.shadowed = delegate.containsKey(name);
+    }
+
+    private boolean isOverlay(Object key) {
+        return name != null && key instanceof String && name.equalsIgnoreCase((String) key);
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        return isOverlay(key) ? value : delegate.get(key);
+    }
+
+    @Override
+    public String getFirst(String key) {
+        return isOverlay(key) ? value.get(0) : delegate.getFirst(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return isOverlay(key) || delegate.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return name == null || shadowed ? delegate.size() : delegate.size() + 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return name == null && delegate.isEmpty();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        if (name == null) {
+            return delegate.entrySet();
+        }
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, List<String>>> iterator() {
+                return new OverlayIterator(delegate.entrySet().iterator());
+            }
+
+            @Override
+            public int size() {
+                return GrayHeaderOverlay.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Map<String, String> toSingleValueMap() {
+        Map<String, String> result = new LinkedHashMap<>(size());
+        forEach((key, values) -> result.put(key, values.isEmpty() ? null : values.get(0)));
+        return result;
+    }
+
+    @Override
+    public List<String> put(String key, List<String> values) {
+        return writable().put(key, values);
+    }
+
+    @Override
+    public List<String> remove(Object key) {
+        return writable().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        writable().clear();
+    }
+
+    @Override
+    public void add(String key, String value) {
+        writable().add(key, value);
+    }
+
+    @Override
+    public void addAll(String key, List<? extends String> values) {
+        writable().addAll(key, values);
+    }
+
+    @Override
+    public void addAll(MultiValueMap<String, String> values) {
+        writable().addAll(values);
+    }
+
+    @Override
+    public void set(String key, String value) {
+        writable().set(key, value);
+    }
+
+    @Override
+    public void setAll(Map<String, String> values) {
+        writable().setAll(values);
+    }
+
+    /**
+     * 首次修改时复制为可写的请求头
+     */
+    private MultiValueMap<String, String> writable() {
+        if (name != null) {
+            HttpHeaders copy = new HttpHeaders();
+            copy.putAll(delegate);
+            // 覆盖值是不可变列表，副本中的值需要可以继续add
+            copy.put(name, new ArrayList<>(value));
+            delegate = copy;
+            name = null;
+        }
+        return delegate;
+    }
+
+    /**
+     * 先返回覆盖的请求头，再返回原始请求头中的其它请求头
+     */
+    private final class OverlayIterator implements Iterator<Entry<String, List<String>>> {
+
+        private final Iterator<Entry<String, List<String>>> iterator;
+
+        private boolean overlayReturned;
+
+        private Entry<String, List<String>> next;
+
+        OverlayIterator(Iterator<Entry<String, List<String>>> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!overlayReturned || next != null) {
+                return true;
+            }
+            while (iterator.hasNext()) {
+                Entry<String, List<String>> entry = iterator.next();
+                if (!isOverlay(entry.getKey())) {
+                    next = entry;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Entry<String, List<String>> next() {
+            if (!overlayReturned) {
+                overlayReturned = true;
+                return new SimpleImmutableEntry<>(name, value);
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, List<String>> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
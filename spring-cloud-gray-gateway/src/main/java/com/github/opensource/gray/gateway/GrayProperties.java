@@ -2,18 +2,19 @@ package com.github.opensource.gray.gateway;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * 网关灰度配置，只在启动时绑定一次。配置刷新后由{@link GrayRuleEngine}从Environment重新绑定，
+ * 生成不可变的{@link GrayGatewayRoutingConfig}快照，因此不使用@RefreshScope，请求路径上不经过作用域代理。
+ *
  * @author double
  * @Date 2024/7/20 17:06
  */
 //@Configuration
-@RefreshScope
 @ConfigurationProperties("spring.cloud.loadbalancer.gray")
 @Data
 public class GrayProperties {
@@ -24,8 +25,15 @@ public class GrayProperties {
     private Boolean enabled;
 
     /**
-     * 灰度匹配内容
+     * 灰度匹配规则，命中任意一条的请求路由到灰度版本，规则语法见{@link GrayRuleCompiler}。
+     * 例如：header:X-Canary=true、cookie:canary=1、query:gray=true、path:/api/v2/**、hash:user-id=10
      */
     private List<String> matches = new ArrayList<>();
+
+    /**
+     * 粘性路由使用的请求头，例如user-id。配置后网关预先计算其哈希并随路由决策传给负载均衡器，
+     * 与服务配置的spring.cloud.loadbalancer.gray.services.*.sticky-header相同时直接使用，不再重复读取请求头。
+     */
+    private String stickyHeader;
 }
 
@@ -0,0 +1,22 @@
+package com.github.opensource.gray.gateway;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * 编译后的灰度路由规则，判断请求是否应该路由到灰度版本。
+ * 实现类必须是不可变的，并且判断过程中不分配内存。
+ *
+ * @author double
+ * @Date 2026/10/17 15:20
+ */
+@FunctionalInterface
+public interface GrayRule {
+
+    /**
+     * 判断请求是否命中规则
+     *
+     * @param request 网关请求
+     * @return true表示命中
+     */
+    boolean matches(ServerHttpRequest request);
+}
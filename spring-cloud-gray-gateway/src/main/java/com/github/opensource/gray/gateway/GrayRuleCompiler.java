@@ -0,0 +1,187 @@
+package com.github.opensource.gray.gateway;
+
+import com.github.opensource.gray.GrayHash;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * 灰度规则编译器，将{@link GrayProperties#getMatches()}中的规则表达式编译为不可变的谓词树。
+ * <p>
+ * 每条规则由一个或多个条件组成，条件之间用{@code &}连接表示同时满足；多条规则之间是或的关系。
+ * 支持的条件：
+ * <ul>
+ *     <li>{@code header:name} / {@code header:name=value}：请求头存在 / 等于指定值</li>
+ *     <li>{@code cookie:name} / {@code cookie:name=value}：Cookie存在 / 等于指定值</li>
+ *     <li>{@code query:name} / {@code query:name=value}：查询参数存在 / 等于指定值</li>
+ *     <li>{@code path:pattern}：请求路径匹配，例如{@code path:/api/order/**}</li>
+ *     <li>{@code hash:name=percent}：按请求头取值的哈希分桶，命中前percent%的桶，例如{@code hash:user-id=10}</li>
+ * </ul>
+ * 例如{@code header:X-Canary=true & path:/api/order/**}。
+ *
+ * @author double
+ * @Date 2026/10/17 15:24
+ */
+public final class GrayRuleCompiler {
+
+    private static final PathPatternParser PATH_PATTERN_PARSER = PathPatternParser.defaultInstance;
+
+    private GrayRuleCompiler() {
+    }
+
+    /**
+     * 编译一条规则表达式
+     *
+     * @param expression 规则表达式
+     * @return 编译后的规则
+     * @throws IllegalArgumentException 表达式不合法时抛出
+     */
+    public static GrayRule compile(String expression) {
+        if (StringUtils.isBlank(expression)) {
+            throw new IllegalArgumentException("Gray rule must not be blank");
+        }
+        String[] parts = expression.split("&");
+        GrayRule[] conditions = new GrayRule[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            conditions[i] = compileCondition(parts[i].trim(), expression);
+        }
+        return conditions.length == 1 ? conditions[0] : new AllOf(conditions);
+    }
+
+    private static GrayRule compileCondition(String condition, String expression) {
+        int colon = condition.indexOf(':');
+        if (colon <= 0 || colon == condition.length() - 1) {
+            throw new IllegalArgumentException("Illegal gray rule condition '" + condition + "' in: " + expression);
+        }
+        String type = condition.substring(0, colon).trim();
+        String body = condition.substring(colon + 1).trim();
+        int eq = body.indexOf('=');
+        String name = eq < 0 ? body : body.substring(0, eq).trim();
+        String value = eq < 0 ? null : body.substring(eq + 1).trim();
+        switch (type) {
+            case "header":
+                return new HeaderCondition(name, value);
+            case "cookie":
+                return new CookieCondition(name, value);
+            case "query":
+                return new QueryCondition(name, value);
+            case "path":
+                return new PathCondition(PATH_PATTERN_PARSER.parse(body));
+            case "hash":
+                if (value == null) {
+                    throw new IllegalArgumentException("Gray rule hash condition requires a percent: " + expression);
+                }
+                double percent = Double.parseDouble(StringUtils.removeEnd(value, "%"));
+                return new HashCondition(name, (int) Math.round(percent * GrayHash.BUCKETS / 100));
+            default:
+                throw new IllegalArgumentException("Unknown gray rule condition type '" + type + "' in: " + expression);
+        }
+    }
+
+    private static final class AllOf implements GrayRule {
+
+        private final GrayRule[] conditions;
+
+        private AllOf(GrayRule[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        public boolean matches(ServerHttpRequest request) {
+            for (GrayRule condition : conditions) {
+                if (!condition.matches(request)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class HeaderCondition implements GrayRule {
+
+        private final String name;
+
+        private final String value;
+
+        private HeaderCondition(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public boolean matches(ServerHttpRequest request) {
+            String actual = request.getHeaders().getFirst(name);
+            return actual != null && (value == null || value.equals(actual));
+        }
+    }
+
+    private static final class CookieCondition implements GrayRule {
+
+        private final String name;
+
+        private final String value;
+
+        private CookieCondition(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public boolean matches(ServerHttpRequest request) {
+            HttpCookie cookie = request.getCookies().getFirst(name);
+            return cookie != null && (value == null || value.equals(cookie.getValue()));
+        }
+    }
+
+    private static final class QueryCondition implements GrayRule {
+
+        private final String name;
+
+        private final String value;
+
+        private QueryCondition(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public boolean matches(ServerHttpRequest request) {
+            String actual = request.getQueryParams().getFirst(name);
+            return actual != null && (value == null || value.equals(actual));
+        }
+    }
+
+    private static final class PathCondition implements GrayRule {
+
+        private final PathPattern pattern;
+
+        private PathCondition(PathPattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean matches(ServerHttpRequest request) {
+            return pattern.matches(request.getPath().pathWithinApplication());
+        }
+    }
+
+    private static final class HashCondition implements GrayRule {
+
+        private final String name;
+
+        private final int buckets;
+
+        private HashCondition(String name, int buckets) {
+            this.name = name;
+            this.buckets = buckets;
+        }
+
+        @Override
+        public boolean matches(ServerHttpRequest request) {
+            String key = request.getHeaders().getFirst(name);
+            return key != null && GrayHash.bucket(GrayHash.hash(key)) < buckets;
+        }
+    }
+}
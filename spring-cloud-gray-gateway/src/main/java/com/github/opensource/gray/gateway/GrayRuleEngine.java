@@ -0,0 +1,100 @@
+package com.github.opensource.gray.gateway;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * 灰度规则引擎。
+ * <p>
+ * 启动时以及配置刷新后，将灰度开关、{@link GrayProperties#getMatches()}编译后的规则和粘性请求头
+ * 合成一份不可变的{@link GrayGatewayRoutingConfig}，通过volatile引用整体替换。请求路径上只读取这个引用，不再访问配置对象。
+ * 配置中心推送变更（EnvironmentChangeEvent）时从Environment重新绑定，不依赖@RefreshScope重建bean；
+ * 规则表达式没有变化时不重新编译。不合法的规则会被忽略并打印警告，不影响其它规则生效。
+ *
+ * @author double
+ * @Date 2026/10/17 15:40
+ */
+@Slf4j
+public class GrayRuleEngine implements ApplicationListener<EnvironmentChangeEvent> {
+
+    public static final String PREFIX = "spring.cloud.loadbalancer.gray";
+
+    private final GrayProperties grayProperties;
+
+    /**
+     * 为null时从grayProperties重新编译
+     */
+    private final Environment environment;
+
+    private volatile GrayGatewayRoutingConfig config;
+
+    public GrayRuleEngine(GrayProperties grayProperties) {
+        this(grayProperties, null);
+    }
+
+    /**
+     * @param grayProperties 启动时绑定的网关灰度配置
+     * @param environment    配置刷新后从中重新绑定
+     */
+    public GrayRuleEngine(GrayProperties grayProperties, Environment environment) {
+        this.grayProperties = grayProperties;
+        this.environment = environment;
+        this.config = GrayGatewayRoutingConfig.of(grayProperties);
+    }
+
+    /**
+     * @return 当前的网关灰度路由配置快照
+     */
+    public GrayGatewayRoutingConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 判断请求是否命中任意一条灰度规则
+     *
+     * @param request 网关请求
+     * @return true表示命中
+     */
+    public boolean matches(ServerHttpRequest request) {
+        return match(request) != null;
+    }
+
+    /**
+     * 查找请求命中的第一条灰度规则
+     *
+     * @param request 网关请求
+     * @return 命中规则的表达式，没有命中时返回null
+     */
+    public String match(ServerHttpRequest request) {
+        return config.match(request);
+    }
+
+    /**
+     * 重新绑定配置并发布新的快照
+     */
+    public synchronized void refresh() {
+        GrayProperties properties = environment == null ? grayProperties
+                : Binder.get(environment).bindOrCreate(PREFIX, GrayProperties.class);
+        GrayGatewayRoutingConfig previous = this.config;
+        GrayGatewayRoutingConfig updated = GrayGatewayRoutingConfig.update(previous, properties);
+        if (updated != previous) {
+            this.config = updated;
+            log.info("Gray gateway config refreshed, enabled: {}, rules: {}, sticky header: {}",
+                    updated.isEnabled(), updated.getRuleCount(), updated.getStickyHeader());
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        for (String key : event.getKeys()) {
+            if (key.startsWith(PREFIX)) {
+                refresh();
+                return;
+            }
+        }
+    }
+}
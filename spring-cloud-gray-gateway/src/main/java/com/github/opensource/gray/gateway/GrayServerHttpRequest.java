@@ -0,0 +1,28 @@
+package com.github.opensource.gray.gateway;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+
+/**
+ * 覆盖一个请求头的请求装饰器，代替request.mutate().header(...)，避免复制整个请求头。
+ * 与其它ServerHttpRequest一样，返回的请求头是只读的，需要修改时通过request.mutate()
+ *
+ * @author double
+ * @Date 2026/10/17 20:55
+ */
+public class GrayServerHttpRequest extends ServerHttpRequestDecorator {
+
+    private final HttpHeaders headers;
+
+    public GrayServerHttpRequest(ServerHttpRequest delegate, String headerName, String headerValue) {
+        super(delegate);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(
+                new GrayHeaderOverlay(delegate.getHeaders(), headerName, headerValue));
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+}
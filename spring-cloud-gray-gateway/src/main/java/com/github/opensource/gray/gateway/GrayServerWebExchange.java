@@ -0,0 +1,26 @@
+package com.github.opensource.gray.gateway;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+
+/**
+ * 替换请求的交换机装饰器，代替exchange.mutate().request(...).build()，省去builder的分配
+ *
+ * @author double
+ * @Date 2026/10/17 20:57
+ */
+public class GrayServerWebExchange extends ServerWebExchangeDecorator {
+
+    private final ServerHttpRequest request;
+
+    public GrayServerWebExchange(ServerWebExchange delegate, ServerHttpRequest request) {
+        super(delegate);
+        this.request = request;
+    }
+
+    @Override
+    public ServerHttpRequest getRequest() {
+        return request;
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.opensource.gray.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 网关灰度配置快照：忽略空的规则条目，规则没有变化时沿用上一份快照
+ *
+ * @author double
+ * @Date 2026/10/18 10:20
+ */
+class GrayGatewayRoutingConfigTest {
+
+    @Test
+    void skipsNullAndBlankExpressions() {
+        GrayGatewayRoutingConfig config = GrayGatewayRoutingConfig.of(properties(
+                Arrays.asList(null, "header:user-id=42", " ", "", "unknown:x")));
+
+        assertThat(config.getRuleCount()).isEqualTo(1);
+        assertThat(config.match(MockServerHttpRequest.get("/users").header("user-id", "42").build()))
+                .isEqualTo("header:user-id=42");
+        assertThat(config.match(MockServerHttpRequest.get("/users").build())).isNull();
+    }
+
+    @Test
+    void reusesSnapshotWhenOnlyBlankEntriesChange() {
+        GrayGatewayRoutingConfig config = GrayGatewayRoutingConfig.of(properties(List.of("header:user-id=42")));
+
+        List<String> matches = new ArrayList<>(Arrays.asList("header:user-id=42", null, "  "));
+        assertThat(GrayGatewayRoutingConfig.update(config, properties(matches))).isSameAs(config);
+        assertThat(GrayGatewayRoutingConfig.update(config, properties(null)).getRuleCount()).isZero();
+    }
+
+    private static GrayProperties properties(List<String> matches) {
+        GrayProperties properties = new GrayProperties();
+        properties.setEnabled(true);
+        properties.setMatches(matches);
+        return properties;
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.opensource.gray.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 覆盖请求头的只读视图：读取、大小写不同的同名请求头以及覆盖后的修改
+ *
+ * @author double
+ * @Date 2026/10/18 00:10
+ */
+class GrayHeaderOverlayTest {
+
+    @Test
+    void readsOverlayValueIgnoringCase() {
+        HttpHeaders original = new HttpHeaders();
+        original.add("user-id", "42");
+        GrayHeaderOverlay overlay = new GrayHeaderOverlay(original, "version", "gray");
+
+        assertThat(overlay.get("version")).containsExactly("gray");
+        assertThat(overlay.get("VERSION")).containsExactly("gray");
+        assertThat(overlay.getFirst("Version")).isEqualTo("gray");
+        assertThat(overlay.containsKey("version")).isTrue();
+        assertThat(overlay.getFirst("user-id")).isEqualTo("42");
+        assertThat(overlay.get("missing")).isNull();
+        assertThat(overlay.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shadowsOriginalHeaderDifferingInCase() {
+        HttpHeaders original = new HttpHeaders();
+        original.add("Version", "base");
+        original.add("user-id", "42");
+        GrayHeaderOverlay overlay = new GrayHeaderOverlay(original, "version", "gray");
+
+        assertThat(overlay.size()).isEqualTo(2);
+        assertThat(overlay.entrySet()).hasSize(2);
+        List<String> versions = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : overlay.entrySet()) {
+            if ("version".equalsIgnoreCase(entry.getKey())) {
+                versions.addAll(entry.getValue());
+            }
+        }
+        assertThat(versions).containsExactly("gray");
+        assertThat(overlay.toSingleValueMap()).containsEntry("version", "gray").containsEntry("user-id", "42");
+    }
+
+    @Test
+    void mutationCopiesWithoutTouchingOriginal() {
+        HttpHeaders original = new HttpHeaders();
+        original.add("Version", "base");
+        original.add("user-id", "42");
+        GrayHeaderOverlay overlay = new GrayHeaderOverlay(original, "version", "gray");
+
+        overlay.add("version", "v2-alpha");
+        overlay.set("trace-id", "abc");
+
+        assertThat(overlay.get("VERSION")).containsExactly("gray", "v2-alpha");
+        assertThat(overlay.getFirst("trace-id")).isEqualTo("abc");
+        assertThat(overlay.size()).isEqualTo(3);
+        assertThat(original.get("version")).containsExactly("base");
+        assertThat(original.containsKey("trace-id")).isFalse();
+    }
+
+    @Test
+    void requestHeadersAreReadOnly() {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/users").header("Version", "base").build();
+        GrayServerHttpRequest grayRequest = new GrayServerHttpRequest(request, "version", "gray");
+
+        HttpHeaders headers = grayRequest.getHeaders();
+        assertThat(headers.getFirst("version")).isEqualTo("gray");
+        assertThatThrownBy(() -> headers.set("version", "base")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(request.getHeaders().getFirst("version")).isEqualTo("base");
+    }
+}
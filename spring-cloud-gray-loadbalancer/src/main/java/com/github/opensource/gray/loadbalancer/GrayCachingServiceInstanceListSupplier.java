@@ -0,0 +1,144 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayInstanceDescriptors;
+import com.github.opensource.gray.GrayLaneRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 缓存灰度分区快照的ServiceInstanceListSupplier。
+ * <p>
+ * 最近一次的实例列表按泳道分区后保存在volatile字段中，负载均衡器直接读取快照在内存中同步选择实例，
+ * 不再每次请求都订阅服务发现。快照在以下情况刷新：
+ * <ul>
+ *     <li>服务发现发布HeartbeatEvent，由{@link GrayServiceInstanceRefresher}通知</li>
+ *     <li>快照超过TTL，刷新完成前继续使用旧快照</li>
+ *     <li>可用区偏好配置刷新，由{@link GrayRoutingConfigRefresher}通知</li>
+ *     <li>泳道新增或淘汰</li>
+ * </ul>
+ * 刷新失败时淘汰旧快照，之后的请求直接从服务发现获取，避免长期使用已经下线的实例。
+ * 委托的Supplier可以是任意实现，例如基于SimpleDiscoveryClient的内存服务发现，便于在测试中使用。
+ *
+ * @author double
+ * @Date 2026/10/17 22:40
+ */
+@Slf4j
+public class GrayCachingServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final long ttlNanos;
+
+    private final GrayInstanceDescriptors descriptors;
+
+    /**
+     * 当前的可用区偏好，与快照中的不是同一个对象时重新分区
+     */
+    private final Supplier<GrayZonePreference> zonePreference;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+
+    public GrayCachingServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, Duration ttl) {
+        this(delegate, ttl, GrayZonePreference.NONE);
+    }
+
+    public GrayCachingServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, Duration ttl,
+                                                  GrayZonePreference zonePreference) {
+        this(delegate, ttl, GrayLaneRegistry.getInstance(), zonePreference);
+    }
+
+    public GrayCachingServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, Duration ttl,
+                                                  GrayLaneRegistry laneRegistry) {
+        this(delegate, ttl, laneRegistry, GrayZonePreference.NONE);
+    }
+
+    public GrayCachingServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, Duration ttl,
+                                                  GrayLaneRegistry laneRegistry, GrayZonePreference zonePreference) {
+        this(delegate, ttl, laneRegistry, () -> zonePreference);
+    }
+
+    public GrayCachingServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, Duration ttl,
+                                                  GrayLaneRegistry laneRegistry,
+                                                  Supplier<GrayZonePreference> zonePreference) {
+        super(delegate);
+        this.ttlNanos = ttl.toNanos();
+        this.descriptors = new GrayInstanceDescriptors(laneRegistry);
+        this.zonePreference = zonePreference;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        GrayInstancePartition partition = getPartition();
+        if (partition != null) {
+            return Flux.just(partition.getInstances());
+        }
+        return load().map(GrayInstancePartition::getInstances).flux();
+    }
+
+    /**
+     * 获取当前的分区快照，快照超过TTL时在后台刷新
+     *
+     * @return 分区快照，尚未加载或已被淘汰时返回null
+     */
+    public GrayInstancePartition getPartition() {
+        Snapshot current = this.snapshot;
+        if (current == null) {
+            return null;
+        }
+        if (System.nanoTime() - current.loadedAt > ttlNanos || current.partition.isStale(descriptors.getLaneRegistry())) {
+            refresh();
+        }
+        return current.partition;
+    }
+
+    /**
+     * 在后台重新加载实例列表，已经在刷新时忽略
+     */
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        load().doFinally(signal -> refreshing.set(false))
+                .subscribe(partition -> {
+                }, error -> {
+                    log.warn("Failed to refresh instances of service: " + getServiceId() + ", evicting cached snapshot",
+                            error);
+                    snapshot = null;
+                });
+    }
+
+    private Mono<GrayInstancePartition> load() {
+        return getDelegate().get().next().map(instances -> {
+            Snapshot current = this.snapshot;
+            GrayZonePreference zone = zonePreference.get();
+            // 实例列表、可用区偏好和泳道都没有变化时保留原分区，负载均衡器的游标、哈希环等不需要重建
+            GrayInstancePartition partition = current != null && current.partition.isSnapshotOf(instances)
+                    && current.partition.getZonePreference() == zone
+                    && !current.partition.isStale(descriptors.getLaneRegistry())
+                    ? current.partition : GrayInstancePartition.of(instances, descriptors, zone);
+            this.snapshot = new Snapshot(partition, System.nanoTime());
+            return partition;
+        });
+    }
+
+    private static final class Snapshot {
+
+        private final GrayInstancePartition partition;
+
+        private final long loadedAt;
+
+        private Snapshot(GrayInstancePartition partition, long loadedAt) {
+            this.partition = partition;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayDecision;
+import com.github.opensource.gray.GrayHash;
+import com.github.opensource.gray.GrayLaneRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * 泳道内按请求头的一致性哈希选择实例，同一个键（例如user-id）总是落在泳道内的同一个实例上。
+ * <p>
+ * 每个泳道一个{@link GrayHashRing}，候选实例数组变化（即实例列表快照变化）时才重建；
+ * 网关已经按同一个请求头计算了粘性哈希时直接使用。请求中没有该请求头时交给降级策略（轮询）选择。
+ *
+ * @author double
+ * @Date 2026/10/17 21:50
+ */
+public class GrayConsistentHashChooser implements GrayInstanceChooser {
+
+    private final String serviceId;
+
+    private final Supplier<GrayRoutingConfig> routingConfig;
+
+    private final GrayInstanceChooser fallback;
+
+    private final AtomicReferenceArray<GrayHashRing> rings = new AtomicReferenceArray<>(GrayLaneRegistry.MAX_LANES);
+
+    /**
+     * 全部实例（降级链上都没有实例时）使用的哈希环
+     */
+    private volatile GrayHashRing allInstances;
+
+    public GrayConsistentHashChooser(String serviceId, Supplier<GrayRoutingConfig> routingConfig,
+                                     GrayInstanceChooser fallback) {
+        this.serviceId = serviceId;
+        this.routingConfig = routingConfig;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public ServiceInstance choose(int laneId, ServiceInstance[] candidates, Request<?> request, GrayDecision decision) {
+        String hashHeader = routingConfig.get().getService(serviceId).getHashHeader();
+        if (hashHeader == null) {
+            return fallback.choose(laneId, candidates, request, decision);
+        }
+        int hash;
+        if (decision.hasStickyHash(hashHeader)) {
+            hash = decision.getStickyHash();
+        } else {
+            String key = GrayRequestClassifier.getHeader(request, hashHeader);
+            if (key == null) {
+                return fallback.choose(laneId, candidates, request, decision);
+            }
+            hash = GrayHash.hash(key);
+        }
+        return ring(laneId, candidates).get(hash);
+    }
+
+    private GrayHashRing ring(int laneId, ServiceInstance[] candidates) {
+        GrayHashRing ring = laneId == ALL_INSTANCES ? allInstances : rings.get(laneId);
+        if (ring == null || !ring.isBuiltFrom(candidates)) {
+            // 并发重建时各线程构建的环内容相同，后写入的覆盖先写入的即可
+            ring = GrayHashRing.of(candidates, ring);
+            if (laneId == ALL_INSTANCES) {
+                allInstances = ring;
+            } else {
+                rings.set(laneId, ring);
+            }
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayHash;
+import com.github.opensource.gray.GrayInstanceDescriptor;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 一个泳道的一致性哈希环，不可变。
+ * <p>
+ * 每个实例按实例标识在环上放置{@link #VIRTUAL_NODES}个虚拟节点（共n·V个），按键的哈希二分查找顺时针方向的第一个虚拟节点，
+ * O(log(n·V))。虚拟节点的位置只取决于实例标识，实例增减时只有落在该实例虚拟节点上的键（约1/n）会重新映射。
+ * <p>
+ * 环按实例列表快照构建一次。成员变化时整环重建：复用上一个环中已有实例的虚拟节点哈希，只为新实例计算，
+ * 但全部虚拟节点仍要重新排序，重建为O(n·V log(n·V))，不是增量更新。
+ *
+ * @author double
+ * @Date 2026/10/17 21:45
+ */
+public final class GrayHashRing {
+
+    /**
+     * 每个实例的虚拟节点数
+     */
+    static final int VIRTUAL_NODES = 160;
+
+    /**
+     * 生成本环的候选实例数组，分区快照不变时数组引用不变
+     */
+    private final ServiceInstance[] source;
+
+    /**
+     * 升序排列的虚拟节点哈希
+     */
+    private final int[] points;
+
+    /**
+     * 与points对应的实例
+     */
+    private final ServiceInstance[] owners;
+
+    /**
+     * 实例标识 -> 升序排列的虚拟节点哈希，供下一次重建复用
+     */
+    private final Map<String, int[]> pointsByKey;
+
+    private GrayHashRing(ServiceInstance[] source, int[] points, ServiceInstance[] owners,
+                         Map<String, int[]> pointsByKey) {
+        this.source = source;
+        this.points = points;
+        this.owners = owners;
+        this.pointsByKey = pointsByKey;
+    }
+
+    /**
+     * 构建哈希环
+     *
+     * @param instances 泳道的候选实例
+     * @param previous  上一个环，可以为null
+     * @return 哈希环
+     */
+    public static GrayHashRing of(ServiceInstance[] instances, GrayHashRing previous) {
+        Map<String, int[]> pointsByKey = new HashMap<>(instances.length * 2);
+        long[] entries = new long[instances.length * VIRTUAL_NODES];
+        int n = 0;
+        for (int i = 0; i < instances.length; i++) {
+            String key = GrayInstanceDescriptor.key(instances[i]);
+            int[] instancePoints = previous == null ? null : previous.pointsByKey.get(key);
+            if (instancePoints == null) {
+                instancePoints = virtualNodes(key);
+            }
+            pointsByKey.put(key, instancePoints);
+            for (int point : instancePoints) {
+                // 高32位为哈希，低32位为实例下标，按long排序即按哈希排序
+                entries[n++] = ((long) point << 32) | i;
+            }
+        }
+        Arrays.sort(entries, 0, n);
+        int[] points = new int[n];
+        ServiceInstance[] owners = new ServiceInstance[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = (int) (entries[i] >> 32);
+            owners[i] = instances[(int) entries[i]];
+        }
+        return new GrayHashRing(instances, points, owners, pointsByKey);
+    }
+
+    private static int[] virtualNodes(String key) {
+        int keyHash = key.hashCode();
+        int[] result = new int[VIRTUAL_NODES];
+        for (int i = 0; i < VIRTUAL_NODES; i++) {
+            result[i] = GrayHash.mix(keyHash + i * 0x9E3779B9);
+        }
+        return result;
+    }
+
+    /**
+     * @param instances 候选实例数组
+     * @return 本环是否由该数组构建
+     */
+    public boolean isBuiltFrom(ServiceInstance[] instances) {
+        return source == instances;
+    }
+
+    /**
+     * @param hash {@link GrayHash#hash(String)}计算的键哈希
+     * @return 顺时针方向第一个虚拟节点对应的实例
+     */
+    public ServiceInstance get(int hash) {
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                index = 0;
+            }
+        }
+        return owners[index];
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayDecision;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * 在一个泳道的候选实例中选择实例的策略。
+ * 泳道已经由负载均衡器确定，策略只负责泳道内的选择，不会跨泳道。
+ *
+ * @author double
+ * @Date 2026/10/17 20:05
+ */
+public interface GrayInstanceChooser {
+
+    /**
+     * 降级链上都没有实例、在全部实例中选择时使用的泳道ID
+     */
+    int ALL_INSTANCES = -1;
+
+    /**
+     * @param laneId     泳道ID，或者{@link #ALL_INSTANCES}
+     * @param candidates 泳道的候选实例，至少两个
+     * @param request    负载均衡请求
+     * @param decision   请求的路由决策
+     * @return 选中的实例
+     */
+    ServiceInstance choose(int laneId, ServiceInstance[] candidates, Request<?> request, GrayDecision decision);
+}
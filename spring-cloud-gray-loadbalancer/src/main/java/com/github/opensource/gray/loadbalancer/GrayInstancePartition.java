@@ -0,0 +1,295 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayInstanceDescriptor;
+import com.github.opensource.gray.GrayInstanceDescriptors;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 服务实例列表的灰度分区快照。
+ * <p>
+ * 每当ServiceInstanceListSupplier发出一份新的实例列表时，只做一次分区：按实例的{@link GrayInstanceDescriptor}
+ * 中的泳道ID拆分为不可变数组。元数据中没有version或version未声明的实例属于基线泳道；
+ * 声明的泳道因为注册表已满没有驻留时，其实例被隔离，不出现在任何泳道以及全部实例的候选中。
+ * 请求路径上只需要按泳道ID取数组、按下标取实例，不再对实例列表做stream过滤，也不会重复读取实例元数据。
+ * <p>
+ * 开启{@link GrayZonePreference 可用区偏好}时，同时为每个泳道计算好优先使用的候选数组：
+ * 同可用区实例满足溢出阈值时为同可用区的实例，否则为泳道的全部实例。
+ *
+ * @author double
+ * @Date 2026/10/17 10:12
+ */
+public final class GrayInstancePartition {
+
+    private static final ServiceInstance[] EMPTY = new ServiceInstance[0];
+
+    /**
+     * 生成该快照的原始实例列表，用于判断新的实例列表是否仍是同一份快照
+     */
+    private final List<ServiceInstance> source;
+
+    private final ServiceInstance[] all;
+
+    /**
+     * 除隔离实例以外的全部实例，降级链上都没有实例时从中选择
+     */
+    private final ServiceInstance[] routable;
+
+    /**
+     * 被隔离的实例
+     */
+    private final ServiceInstance[] quarantined;
+
+    /**
+     * 分区时泳道注册表的代数，泳道新增或淘汰后需要重新分区
+     */
+    private final int laneGeneration;
+
+    /**
+     * 与all按下标对应的实例描述
+     */
+    private final GrayInstanceDescriptor[] descriptors;
+
+    /**
+     * 按泳道ID下标存放的实例数组
+     */
+    private final ServiceInstance[][] lanes;
+
+    /**
+     * 按泳道ID下标存放的优先候选实例，未开启可用区偏好时与lanes相同
+     */
+    private final ServiceInstance[][] preferred;
+
+    /**
+     * 全部实例中的优先候选实例
+     */
+    private final ServiceInstance[] preferredAll;
+
+    private final GrayZonePreference zonePreference;
+
+    /**
+     * 是否存在基线以外的实例
+     */
+    private final boolean hasGray;
+
+    private GrayInstancePartition(List<ServiceInstance> source, ServiceInstance[] all, ServiceInstance[] routable,
+                                  ServiceInstance[] quarantined, int laneGeneration,
+                                  GrayInstanceDescriptor[] descriptors, ServiceInstance[][] lanes,
+                                  ServiceInstance[][] preferred, ServiceInstance[] preferredAll,
+                                  GrayZonePreference zonePreference) {
+        this.source = source;
+        this.all = all;
+        this.routable = routable;
+        this.quarantined = quarantined;
+        this.laneGeneration = laneGeneration;
+        this.descriptors = descriptors;
+        this.lanes = lanes;
+        this.preferred = preferred;
+        this.preferredAll = preferredAll;
+        this.zonePreference = zonePreference;
+        this.hasGray = lanes[GrayLaneRegistry.BASE_ID].length < routable.length;
+    }
+
+    /**
+     * 对实例列表做一次性分区，不区分可用区
+     *
+     * @param instances   ServiceInstanceListSupplier发出的实例列表
+     * @param descriptors 该服务的实例描述缓存
+     * @return 分区快照
+     */
+    public static GrayInstancePartition of(List<ServiceInstance> instances, GrayInstanceDescriptors descriptors) {
+        return of(instances, descriptors, GrayZonePreference.NONE);
+    }
+
+    /**
+     * 对实例列表做一次性分区，同时从描述缓存中清除已经不在列表中的实例
+     *
+     * @param instances      ServiceInstanceListSupplier发出的实例列表
+     * @param descriptors    该服务的实例描述缓存
+     * @param zonePreference 可用区偏好
+     * @return 分区快照
+     */
+    public static GrayInstancePartition of(List<ServiceInstance> instances, GrayInstanceDescriptors descriptors,
+                                           GrayZonePreference zonePreference) {
+        int laneGeneration = descriptors.getLaneRegistry().getGeneration();
+        ServiceInstance[] all = instances.toArray(EMPTY);
+        GrayInstanceDescriptor[] described = new GrayInstanceDescriptor[all.length];
+        List<List<ServiceInstance>> buckets = new ArrayList<>();
+        List<List<ServiceInstance>> localBuckets = new ArrayList<>();
+        List<ServiceInstance> localAll = new ArrayList<>();
+        List<ServiceInstance> routable = new ArrayList<>(all.length);
+        List<ServiceInstance> quarantined = new ArrayList<>();
+        for (int i = 0; i < all.length; i++) {
+            described[i] = descriptors.get(all[i]);
+            int id = described[i].getLaneId();
+            if (id < 0) {
+                quarantined.add(all[i]);
+                continue;
+            }
+            routable.add(all[i]);
+            while (buckets.size() <= id) {
+                buckets.add(new ArrayList<>());
+                localBuckets.add(new ArrayList<>());
+            }
+            buckets.get(id).add(all[i]);
+            if (zonePreference.isLocal(described[i].getZone())) {
+                localBuckets.get(id).add(all[i]);
+                localAll.add(all[i]);
+            }
+        }
+        descriptors.retain(all);
+        ServiceInstance[][] lanes = new ServiceInstance[Math.max(buckets.size(), GrayLaneRegistry.GRAY_ID + 1)][];
+        ServiceInstance[][] preferred = new ServiceInstance[lanes.length][];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = i < buckets.size() ? buckets.get(i).toArray(EMPTY) : EMPTY;
+            preferred[i] = i < localBuckets.size()
+                    ? zonePreference.select(localBuckets.get(i).toArray(EMPTY), lanes[i]) : lanes[i];
+        }
+        ServiceInstance[] routableAll = quarantined.isEmpty() ? all : routable.toArray(EMPTY);
+        ServiceInstance[] preferredAll = zonePreference.select(localAll.toArray(EMPTY), routableAll);
+        return new GrayInstancePartition(instances, all, routableAll, quarantined.toArray(EMPTY), laneGeneration,
+                described, lanes, preferred, preferredAll, zonePreference);
+    }
+
+    /**
+     * 判断实例列表是否与生成本快照的列表相同。
+     * 先比较列表引用，CachingServiceInstanceListSupplier等会复用同一个列表对象；
+     * 否则逐个比较实例引用，只做引用比较，不读取元数据。
+     *
+     * @param instances 新的实例列表
+     * @return true表示可以复用本快照
+     */
+    public boolean isSnapshotOf(List<ServiceInstance> instances) {
+        if (instances == source) {
+            return true;
+        }
+        if (instances.size() != all.length) {
+            return false;
+        }
+        for (int i = 0; i < all.length; i++) {
+            if (instances.get(i) != all[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 大多数服务在大多数时间没有灰度实例，此时负载均衡器可以跳过灰度分类，直接在全部实例中轮询
+     *
+     * @return 是否存在基线以外（gray或者v2-alpha等）的实例
+     */
+    public boolean hasGray() {
+        return hasGray;
+    }
+
+    /**
+     * @param laneRegistry 泳道注册表
+     * @return 分区后泳道是否发生过新增或淘汰，是则需要重新分区
+     */
+    public boolean isStale(GrayLaneRegistry laneRegistry) {
+        return laneGeneration != laneRegistry.getGeneration();
+    }
+
+    /**
+     * @return 是否没有可以路由的实例
+     */
+    public boolean isEmpty() {
+        return routable.length == 0;
+    }
+
+    /**
+     * @return 被隔离的实例
+     */
+    public ServiceInstance[] getQuarantined() {
+        return quarantined;
+    }
+
+    /**
+     * @return 生成该快照的原始实例列表
+     */
+    public List<ServiceInstance> getInstances() {
+        return source;
+    }
+
+    /**
+     * @return 全部实例，包括被隔离的实例
+     */
+    public ServiceInstance[] getAll() {
+        return all;
+    }
+
+    /**
+     * @return 与{@link #getAll()}按下标对应的实例描述
+     */
+    public GrayInstanceDescriptor[] getDescriptors() {
+        return descriptors;
+    }
+
+    /**
+     * @param laneId 泳道ID
+     * @return 该泳道的实例，不存在时返回空数组
+     */
+    public ServiceInstance[] getLane(int laneId) {
+        return laneId < lanes.length ? lanes[laneId] : EMPTY;
+    }
+
+    /**
+     * 泳道内优先使用的候选实例：同可用区实例满足溢出阈值时为同可用区的实例，否则为泳道的全部实例
+     *
+     * @param laneId 泳道ID，{@link GrayInstanceChooser#ALL_INSTANCES}表示全部实例
+     * @return 候选实例，泳道不存在时返回空数组
+     */
+    public ServiceInstance[] getPreferred(int laneId) {
+        if (laneId == GrayInstanceChooser.ALL_INSTANCES) {
+            return preferredAll;
+        }
+        return laneId < preferred.length ? preferred[laneId] : EMPTY;
+    }
+
+    /**
+     * @return 生成该快照时使用的可用区偏好
+     */
+    public GrayZonePreference getZonePreference() {
+        return zonePreference;
+    }
+
+    /**
+     * @return 元数据version为gray的实例
+     */
+    public ServiceInstance[] getGray() {
+        return lanes[GrayLaneRegistry.GRAY_ID];
+    }
+
+    /**
+     * @return 基线实例，即元数据中没有version或version为base的实例
+     */
+    public ServiceInstance[] getBase() {
+        return lanes[GrayLaneRegistry.BASE_ID];
+    }
+
+    /**
+     * @param registry 泳道注册表
+     * @return 按泳道名称分组的实例，不包含空泳道，被隔离的实例在quarantined下
+     */
+    public Map<String, ServiceInstance[]> getLanes(GrayLaneRegistry registry) {
+        Map<String, ServiceInstance[]> result = new LinkedHashMap<>();
+        for (int i = 0; i < lanes.length; i++) {
+            GrayLane lane = registry.get(i);
+            if (lanes[i].length > 0 && lane != null) {
+                result.put(lane.getName(), lanes[i]);
+            }
+        }
+        if (quarantined.length > 0) {
+            result.put("quarantined", quarantined);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
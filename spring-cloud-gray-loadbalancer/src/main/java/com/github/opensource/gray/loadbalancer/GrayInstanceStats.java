@@ -0,0 +1,107 @@
+package com.github.opensource.gray.loadbalancer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 单个实例的无锁负载统计：进行中的请求数和按时间衰减的EWMA延迟。
+ * <p>
+ * EWMA的权重按距离上次采样的时间计算，w = exp(-elapsed / DECAY_NANOS)，
+ * 采样稀疏时新的延迟占比更大；读取负载时同样按空闲时间衰减，长时间没有流量的实例负载逐渐回落。
+ *
+ * @author double
+ * @Date 2026/10/17 20:15
+ */
+public final class GrayInstanceStats {
+
+    /**
+     * EWMA的衰减时间常数
+     */
+    static final double DECAY_NANOS = 10_000_000_000d;
+
+    private static final VarHandle OUTSTANDING;
+
+    private static final VarHandle EWMA;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            OUTSTANDING = lookup.findVarHandle(GrayInstanceStats.class, "outstanding", int.class);
+            EWMA = lookup.findVarHandle(GrayInstanceStats.class, "ewma", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile int outstanding;
+
+    /**
+     * EWMA延迟（纳秒）的double位表示
+     */
+    private volatile long ewma;
+
+    /**
+     * 最近一次采样的时间，只用于计算衰减，不要求与ewma原子更新
+     */
+    private volatile long lastSampleNanos = System.nanoTime();
+
+    /**
+     * 请求开始
+     */
+    public void start() {
+        OUTSTANDING.getAndAdd(this, 1);
+    }
+
+    /**
+     * 请求结束
+     *
+     * @param latencyNanos 请求耗时，小于0表示没有耗时数据
+     * @param failed       请求是否失败，失败按至少两倍当前EWMA计入，使出错的实例少分到流量
+     */
+    public void complete(long latencyNanos, boolean failed) {
+        int current;
+        do {
+            current = outstanding;
+            if (current == 0) {
+                break;
+            }
+        } while (!OUTSTANDING.compareAndSet(this, current, current - 1));
+        if (latencyNanos >= 0) {
+            sample(latencyNanos, failed);
+        }
+    }
+
+    private void sample(long latencyNanos, boolean failed) {
+        long now = System.nanoTime();
+        double weight = Math.exp(-(now - lastSampleNanos) / DECAY_NANOS);
+        long currentBits;
+        long updatedBits;
+        do {
+            currentBits = ewma;
+            double current = Double.longBitsToDouble(currentBits);
+            double latency = failed ? Math.max(latencyNanos, current * 2) : latencyNanos;
+            updatedBits = Double.doubleToRawLongBits(current * weight + latency * (1 - weight));
+        } while (!EWMA.compareAndSet(this, currentBits, updatedBits));
+        lastSampleNanos = now;
+    }
+
+    /**
+     * @param now 当前时间，System.nanoTime()
+     * @return 负载，越小越优先
+     */
+    public double load(long now) {
+        double latency = Double.longBitsToDouble(ewma) * Math.exp(-(now - lastSampleNanos) / DECAY_NANOS);
+        return (latency + 1) * (outstanding + 1);
+    }
+
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    /**
+     * @return 未衰减的EWMA延迟（纳秒）
+     */
+    public double getLatencyNanos() {
+        return Double.longBitsToDouble(ewma);
+    }
+}
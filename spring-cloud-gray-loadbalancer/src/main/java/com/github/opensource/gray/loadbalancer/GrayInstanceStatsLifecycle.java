@@ -0,0 +1,66 @@
+package com.github.opensource.gray.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * 通过负载均衡生命周期回调维护实例的负载统计：
+ * 发出请求时进行中的请求数加一，请求完成时减一并记录耗时。
+ * <p>
+ * 不论服务当前使用哪种策略都记录（只是两次原子操作）：策略可以动态刷新，如果只在least-outstanding时记录，
+ * 请求进行中切换策略会使开始和完成的计数不成对，进行中的请求数永久偏高或偏低，切回least-outstanding后持续避开这些实例。
+ *
+ * @author double
+ * @Date 2026/10/17 20:25
+ */
+public class GrayInstanceStatsLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final GrayInstanceStatsRegistry statsRegistry;
+
+    public GrayInstanceStatsLifecycle(GrayInstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context && context.getRequestStartTime() == 0) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        statsRegistry.get(lbResponse.getServer()).start();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long latency = -1;
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() > 0) {
+            latency = System.nanoTime() - context.getRequestStartTime();
+        }
+        statsRegistry.get(lbResponse.getServer())
+                .complete(latency, completionContext.status() == CompletionContext.Status.FAILED);
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayInstanceDescriptor;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个服务下各实例的负载统计，按{@link GrayInstanceDescriptor#key 实例标识}存放，服务发现刷新后保留已有的统计。
+ *
+ * @author double
+ * @Date 2026/10/17 20:20
+ */
+public class GrayInstanceStatsRegistry {
+
+    private final Map<String, GrayInstanceStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param instance 实例
+     * @return 实例的负载统计，不存在时创建
+     */
+    public GrayInstanceStats get(ServiceInstance instance) {
+        String key = GrayInstanceDescriptor.key(instance);
+        GrayInstanceStats instanceStats = stats.get(key);
+        return instanceStats != null ? instanceStats : stats.computeIfAbsent(key, k -> new GrayInstanceStats());
+    }
+
+    /**
+     * 移除已经下线的实例的统计
+     *
+     * @param instances 当前的全部实例
+     */
+    public void retain(ServiceInstance[] instances) {
+        if (stats.isEmpty()) {
+            return;
+        }
+        Set<String> keys = new HashSet<>(instances.length * 2);
+        for (ServiceInstance instance : instances) {
+            keys.add(GrayInstanceDescriptor.key(instance));
+        }
+        stats.keySet().retainAll(keys);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.opensource.gray.loadbalancer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 泳道的轮询游标。
+ * <p>
+ * 每个泳道使用独立的游标，灰度和基线交替的流量不会互相推进对方的位置，各泳道内的分布保持均匀。
+ * 游标按线程分成多个条带(stripe)，每个条带是独立计数、并做了缓存行填充的计数器，
+ * 不同CPU上的线程大多落在不同的条带上，避免所有请求竞争同一个缓存行。
+ * 每个条带单独看都是严格的轮询，条带之间起点错开，整体分布仍然均匀。
+ *
+ * @author double
+ * @Date 2026/10/17 18:20
+ */
+public final class GrayLaneCursor {
+
+    private static final int STRIPES = stripes();
+
+    private static final int MASK = STRIPES - 1;
+
+    private final PaddedCounter[] counters = new PaddedCounter[STRIPES];
+
+    /**
+     * @param seedPosition 起始位置，各条带在此基础上错开
+     */
+    public GrayLaneCursor(int seedPosition) {
+        for (int i = 0; i < STRIPES; i++) {
+            counters[i] = new PaddedCounter(seedPosition + (long) i * 7919);
+        }
+    }
+
+    private static int stripes() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        return Integer.highestOneBit(Math.max(processors, 1) * 2 - 1);
+    }
+
+    /**
+     * 获取当前线程所在条带的下一个位置
+     *
+     * @return 非负的单调递增位置
+     */
+    @SuppressWarnings("deprecation")
+    public long next() {
+        // Thread.getId()在JDK 19之后被标记为过时，替代方法threadId()在JDK 17上不可用
+        int stripe = (int) Thread.currentThread().getId() & MASK;
+        return counters[stripe].getAndIncrement() & Long.MAX_VALUE;
+    }
+
+    /**
+     * 按当前线程所在条带的位置，在指定长度的数组中选择下标
+     *
+     * @param length 数组长度，必须大于0
+     * @return 下标
+     */
+    public int nextIndex(int length) {
+        return (int) (next() % length);
+    }
+
+    abstract static class LeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    abstract static class Value extends LeftPadding {
+        volatile long value;
+    }
+
+    /**
+     * 前后各填充56字节，保证value独占一个缓存行
+     */
+    static final class PaddedCounter extends Value {
+
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        PaddedCounter(long initialValue) {
+            this.value = initialValue;
+        }
+
+        long getAndIncrement() {
+            return (long) VALUE.getAndAdd(this, 1L);
+        }
+    }
+}
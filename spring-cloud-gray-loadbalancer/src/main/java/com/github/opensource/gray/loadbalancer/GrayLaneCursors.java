@@ -0,0 +1,48 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayLaneRegistry;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 一个服务下所有泳道的轮询游标，按泳道ID下标存放，首次使用时创建
+ *
+ * @author double
+ * @Date 2026/10/17 18:32
+ */
+public final class GrayLaneCursors {
+
+    private final AtomicReferenceArray<GrayLaneCursor> cursors = new AtomicReferenceArray<>(GrayLaneRegistry.MAX_LANES);
+
+    /**
+     * 全部实例（降级链上都没有实例时）使用的游标
+     */
+    private final GrayLaneCursor allInstances;
+
+    private final int seedPosition;
+
+    public GrayLaneCursors(int seedPosition) {
+        this.seedPosition = seedPosition;
+        this.allInstances = new GrayLaneCursor(seedPosition);
+    }
+
+    /**
+     * @param laneId 泳道ID
+     * @return 泳道的游标
+     */
+    public GrayLaneCursor get(int laneId) {
+        GrayLaneCursor cursor = cursors.get(laneId);
+        if (cursor == null) {
+            GrayLaneCursor created = new GrayLaneCursor(seedPosition);
+            cursor = cursors.compareAndSet(laneId, null, created) ? created : cursors.get(laneId);
+        }
+        return cursor;
+    }
+
+    /**
+     * @return 全部实例使用的游标
+     */
+    public GrayLaneCursor allInstances() {
+        return allInstances;
+    }
+}
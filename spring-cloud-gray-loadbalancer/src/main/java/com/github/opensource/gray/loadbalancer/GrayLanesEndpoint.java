@@ -0,0 +1,64 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayLaneRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 查看各服务当前的灰度泳道分区：/actuator/graylanes 和 /actuator/graylanes/{serviceId}
+ * <p>
+ * 分区来自负载均衡器最近一次处理的实例列表，服务尚未有请求时不会出现在结果中。
+ *
+ * @author double
+ * @Date 2026/10/17 19:45
+ */
+@Endpoint(id = "graylanes")
+public class GrayLanesEndpoint {
+
+    private final GrayLoadBalancerRegistry loadBalancerRegistry;
+
+    private final GrayLaneRegistry laneRegistry;
+
+    public GrayLanesEndpoint(GrayLoadBalancerRegistry loadBalancerRegistry, GrayLaneRegistry laneRegistry) {
+        this.loadBalancerRegistry = loadBalancerRegistry;
+        this.laneRegistry = laneRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, List<String>>> lanes() {
+        Map<String, Map<String, List<String>>> result = new TreeMap<>();
+        for (GrayRoundRobinLoadBalancer loadBalancer : loadBalancerRegistry.getAll()) {
+            GrayInstancePartition partition = loadBalancer.getPartition();
+            if (partition != null) {
+                result.put(loadBalancer.getServiceId(), describe(partition));
+            }
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, List<String>> lane(@Selector String serviceId) {
+        GrayRoundRobinLoadBalancer loadBalancer = loadBalancerRegistry.get(serviceId);
+        GrayInstancePartition partition = loadBalancer == null ? null : loadBalancer.getPartition();
+        return partition == null ? null : describe(partition);
+    }
+
+    private Map<String, List<String>> describe(GrayInstancePartition partition) {
+        Map<String, List<String>> lanes = new TreeMap<>();
+        partition.getLanes(laneRegistry).forEach((name, instances) -> {
+            List<String> addresses = new ArrayList<>(instances.length);
+            for (ServiceInstance instance : instances) {
+                addresses.add(instance.getHost() + ":" + instance.getPort());
+            }
+            lanes.put(name, addresses);
+        });
+        return lanes;
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayDecision;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 泳道内的两次随机选择（power of two choices）：随机取两个不同的实例，选择负载较低的一个。
+ * <p>
+ * 负载为 (EWMA延迟 + 1) * (进行中的请求数 + 1)，慢的或者正在GC停顿的金丝雀实例会积压请求、延迟升高，
+ * 从而少分到流量；EWMA随空闲时间衰减，被避开的实例过一段时间会重新获得流量，不会被永久饿死。
+ *
+ * @author double
+ * @Date 2026/10/17 20:12
+ */
+public class GrayLeastOutstandingChooser implements GrayInstanceChooser {
+
+    private final GrayInstanceStatsRegistry statsRegistry;
+
+    public GrayLeastOutstandingChooser(GrayInstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public ServiceInstance choose(int laneId, ServiceInstance[] candidates, Request<?> request, GrayDecision decision) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.length);
+        int second = random.nextInt(candidates.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        double firstLoad = statsRegistry.get(candidates[first]).load(now);
+        double secondLoad = statsRegistry.get(candidates[second]).load(now);
+        return candidates[secondLoad < firstLoad ? second : first];
+    }
+}
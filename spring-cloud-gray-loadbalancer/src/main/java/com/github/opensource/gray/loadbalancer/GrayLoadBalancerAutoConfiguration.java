@@ -1,7 +1,16 @@
 package com.github.opensource.gray.loadbalancer;
 
+import com.github.opensource.gray.GrayLaneRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.config.LoadBalancerZoneConfig;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * 配置LoadBalancerClient
@@ -9,6 +18,70 @@ import org.springframework.context.annotation.Configuration;
  * @Date 2024/7/25 10:01
  */
 @Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(GrayLoadBalancerProperties.class)
 @LoadBalancerClients(defaultConfiguration = GrayLoadBalancerClientConfiguration.class)
 public class GrayLoadBalancerAutoConfiguration {
+
+    /**
+     * 将配置的泳道以及泳道降级关系注册到全局泳道注册表
+     *
+     * @param grayLoadBalancerProperties 灰度负载均衡配置
+     * @return 泳道注册表
+     */
+    @Bean
+    public GrayLaneRegistry grayLaneRegistry(GrayLoadBalancerProperties grayLoadBalancerProperties) {
+        GrayLaneRegistry registry = GrayLaneRegistry.getInstance();
+        grayLoadBalancerProperties.getLanes().forEach(registry::declare);
+        grayLoadBalancerProperties.getFallbacks().forEach(registry::setFallback);
+        return registry;
+    }
+
+    /**
+     * 各服务的灰度负载均衡器，负载均衡器在各自的子容器中创建后登记到这里
+     *
+     * @return 灰度负载均衡器登记表
+     */
+    @Bean
+    public GrayLoadBalancerRegistry grayLoadBalancerRegistry() {
+        return new GrayLoadBalancerRegistry();
+    }
+
+    /**
+     * 服务发现发布HeartbeatEvent时刷新各服务缓存的分区快照
+     *
+     * @return GrayServiceInstanceRefresher
+     */
+    @Bean
+    public GrayServiceInstanceRefresher grayServiceInstanceRefresher() {
+        return new GrayServiceInstanceRefresher();
+    }
+
+    /**
+     * 路由配置快照，配置刷新时按服务比较后整体替换，各服务的负载均衡器共享
+     *
+     * @param zoneConfig 本地可用区取自spring.cloud.loadbalancer.zone
+     * @return GrayRoutingConfigRefresher
+     */
+    @Bean
+    public GrayRoutingConfigRefresher grayRoutingConfigRefresher(GrayLoadBalancerProperties grayLoadBalancerProperties,
+                                                                 Environment environment,
+                                                                 GrayLaneRegistry grayLaneRegistry,
+                                                                 GrayServiceInstanceRefresher grayServiceInstanceRefresher,
+                                                                 ObjectProvider<LoadBalancerZoneConfig> zoneConfig) {
+        LoadBalancerZoneConfig config = zoneConfig.getIfAvailable();
+        return new GrayRoutingConfigRefresher(grayLoadBalancerProperties, environment,
+                config == null ? null : config.getZone(), grayLaneRegistry, grayServiceInstanceRefresher);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class GrayLanesEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnAvailableEndpoint
+        public GrayLanesEndpoint grayLanesEndpoint(GrayLoadBalancerRegistry grayLoadBalancerRegistry,
+                                                   GrayLaneRegistry grayLaneRegistry) {
+            return new GrayLanesEndpoint(grayLoadBalancerRegistry, grayLaneRegistry);
+        }
+    }
 }
@@ -1,14 +1,23 @@
 package com.github.opensource.gray.loadbalancer;
 
+import com.github.opensource.gray.GrayLaneRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
 import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
 import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
 import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
 
+import java.util.Random;
+
 /**
  * 负载均衡配置类，指定使用哪一个负载均衡器
  * 参考org.springframework.cloud.loadbalancer.annotation.LoadBalancerClientConfiguration
@@ -34,10 +43,89 @@ public class GrayLoadBalancerClientConfiguration {
     @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true", matchIfMissing = true)
     @ConditionalOnBean(LoadBalancerClientFactory.class)
     public ReactorLoadBalancer<ServiceInstance> grayReactorLoadBalancer(Environment environment,
-                                                                        LoadBalancerClientFactory loadBalancerClientFactory) {
+                                                                        LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                        GrayRoutingConfigRefresher grayRoutingConfigRefresher,
+                                                                        GrayLoadBalancerRegistry grayLoadBalancerRegistry,
+                                                                        GrayInstanceStatsRegistry grayInstanceStatsRegistry,
+                                                                        ObjectProvider<MeterRegistry> meterRegistry) {
         //获取微服务名称
         String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        //指标在创建负载均衡器时注册，没有MeterRegistry时不记录
+        GrayLoadBalancerMetrics metrics = GrayLoadBalancerMetrics.of(meterRegistry.getIfAvailable(), name);
         //注意这里注入的是 LazyProvider，这主要因为在注册这个 Bean 的时候相关的 Bean 可能还没有被加载注册，利用 LazyProvider 而不是直接注入所需的 Bean 防止报找不到 Bean 注入的错误。
-        return new GrayRoundRobinLoadBalancer(loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class), name);
+        GrayRoundRobinLoadBalancer loadBalancer = new GrayRoundRobinLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class), name,
+                grayRoutingConfigRefresher, metrics, grayInstanceStatsRegistry,
+                new Random().nextInt(1000));
+        grayLoadBalancerRegistry.register(loadBalancer);
+        return loadBalancer;
+    }
+
+    /**
+     * 服务下各实例的负载统计，供least-outstanding策略使用
+     *
+     * @return GrayInstanceStatsRegistry
+     */
+    @Bean
+    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true", matchIfMissing = true)
+    public GrayInstanceStatsRegistry grayInstanceStatsRegistry() {
+        return new GrayInstanceStatsRegistry();
+    }
+
+    /**
+     * 负载均衡生命周期回调，在请求发出和完成时更新实例的负载统计
+     *
+     * @return GrayInstanceStatsLifecycle
+     */
+    @Bean
+    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true", matchIfMissing = true)
+    public GrayInstanceStatsLifecycle grayInstanceStatsLifecycle(GrayInstanceStatsRegistry grayInstanceStatsRegistry) {
+        return new GrayInstanceStatsLifecycle(grayInstanceStatsRegistry);
+    }
+
+    /**
+     * 开启灰度分区快照缓存时，替换默认的实例列表Supplier：服务发现之上直接使用灰度缓存，不再叠加默认的缓存
+     *
+     * @see org.springframework.cloud.loadbalancer.annotation.LoadBalancerClientConfiguration.ReactiveSupportConfiguration#discoveryClientServiceInstanceListSupplier
+     * @return GrayCachingServiceInstanceListSupplier
+     */
+    @Bean
+    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.cache.enabled", havingValue = "true")
+    @ConditionalOnBean(ReactiveDiscoveryClient.class)
+    public ServiceInstanceListSupplier grayCachingServiceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                              GrayLoadBalancerProperties grayLoadBalancerProperties,
+                                                                              GrayRoutingConfigRefresher grayRoutingConfigRefresher,
+                                                                              GrayServiceInstanceRefresher grayServiceInstanceRefresher) {
+        return grayCaching(ServiceInstanceListSupplier.builder().withDiscoveryClient().build(context),
+                grayLoadBalancerProperties, grayRoutingConfigRefresher, grayServiceInstanceRefresher);
+    }
+
+    /**
+     * 只有阻塞的DiscoveryClient时使用
+     *
+     * @see org.springframework.cloud.loadbalancer.annotation.LoadBalancerClientConfiguration.BlockingSupportConfiguration#discoveryClientServiceInstanceListSupplier
+     * @return GrayCachingServiceInstanceListSupplier
+     */
+    @Bean
+    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.cache.enabled", havingValue = "true")
+    @ConditionalOnMissingBean(ReactiveDiscoveryClient.class)
+    @ConditionalOnBean(DiscoveryClient.class)
+    public ServiceInstanceListSupplier grayCachingBlockingServiceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                                      GrayLoadBalancerProperties grayLoadBalancerProperties,
+                                                                                      GrayRoutingConfigRefresher grayRoutingConfigRefresher,
+                                                                                      GrayServiceInstanceRefresher grayServiceInstanceRefresher) {
+        return grayCaching(ServiceInstanceListSupplier.builder().withBlockingDiscoveryClient().build(context),
+                grayLoadBalancerProperties, grayRoutingConfigRefresher, grayServiceInstanceRefresher);
+    }
+
+    private static ServiceInstanceListSupplier grayCaching(ServiceInstanceListSupplier delegate,
+                                                           GrayLoadBalancerProperties grayLoadBalancerProperties,
+                                                           GrayRoutingConfigRefresher grayRoutingConfigRefresher,
+                                                           GrayServiceInstanceRefresher grayServiceInstanceRefresher) {
+        GrayCachingServiceInstanceListSupplier supplier = new GrayCachingServiceInstanceListSupplier(delegate,
+                grayLoadBalancerProperties.getCache().getTtl(), GrayLaneRegistry.getInstance(),
+                () -> grayRoutingConfigRefresher.get().getZonePreference());
+        grayServiceInstanceRefresher.register(supplier);
+        return supplier;
     }
 }
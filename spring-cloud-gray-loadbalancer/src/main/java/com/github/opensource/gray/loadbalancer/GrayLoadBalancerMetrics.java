@@ -0,0 +1,135 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import com.github.opensource.gray.GrayRequestMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单个服务的灰度负载均衡指标：
+ * <ul>
+ *     <li>gray.loadbalancer.requests：按泳道的请求分类计数，服务没有灰度实例时跳过分类，不计入</li>
+ *     <li>gray.loadbalancer.fallback：泳道没有实例而降级的次数，lane为请求的泳道</li>
+ *     <li>gray.loadbalancer.empty：没有可用实例返回空响应的次数</li>
+ *     <li>gray.loadbalancer.selection：实例选择耗时，带百分位直方图</li>
+ * </ul>
+ * 所有指标在负载均衡器创建时注册并缓存，请求路径上不会访问MeterRegistry。
+ *
+ * @author double
+ * @Date 2026/10/17 19:25
+ */
+public final class GrayLoadBalancerMetrics {
+
+    /**
+     * 不记录指标
+     */
+    public static final GrayLoadBalancerMetrics NOOP = new GrayLoadBalancerMetrics(null, null);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Tags tags;
+
+    private final GrayRequestMetrics requests;
+
+    /**
+     * 按泳道ID缓存，泳道淘汰后ID可能复用，取用时比较泳道对象
+     */
+    private final AtomicReferenceArray<LaneCounter> fallbacks =
+            new AtomicReferenceArray<>(GrayLaneRegistry.MAX_LANES);
+
+    private final Counter empty;
+
+    private final Timer selection;
+
+    private GrayLoadBalancerMetrics(MeterRegistry meterRegistry, String serviceId) {
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry == null) {
+            this.tags = Tags.empty();
+            this.requests = GrayRequestMetrics.NOOP;
+            this.empty = null;
+            this.selection = null;
+            return;
+        }
+        this.tags = Tags.of("service", serviceId);
+        this.requests = GrayRequestMetrics.of(meterRegistry, "gray.loadbalancer.requests", tags);
+        this.empty = Counter.builder("gray.loadbalancer.empty")
+                .description("Load balancer responses without an available instance")
+                .tags(tags)
+                .register(meterRegistry);
+        this.selection = Timer.builder("gray.loadbalancer.selection")
+                .description("Time spent selecting a gray or base instance")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        fallback(GrayLaneRegistry.getInstance().gray());
+    }
+
+    /**
+     * @param meterRegistry 指标注册表，为null时返回{@link #NOOP}
+     * @param serviceId     服务名称
+     * @return 服务的灰度负载均衡指标
+     */
+    public static GrayLoadBalancerMetrics of(MeterRegistry meterRegistry, String serviceId) {
+        return meterRegistry == null ? NOOP : new GrayLoadBalancerMetrics(meterRegistry, serviceId);
+    }
+
+    /**
+     * @return 是否记录指标，为false时调用方可以跳过计时
+     */
+    public boolean isEnabled() {
+        return meterRegistry != null;
+    }
+
+    public void classified(GrayLane lane) {
+        requests.record(lane);
+    }
+
+    public void fallback(GrayLane lane) {
+        if (meterRegistry == null) {
+            return;
+        }
+        LaneCounter cached = fallbacks.get(lane.getId());
+        if (cached == null || cached.lane != lane) {
+            cached = new LaneCounter(lane, Counter.builder("gray.loadbalancer.fallback")
+                    .description("Requests that fell back because their lane had no instances")
+                    .tags(tags)
+                    .tag("lane", lane.getName())
+                    .register(meterRegistry));
+            fallbacks.set(lane.getId(), cached);
+        }
+        cached.counter.increment();
+    }
+
+    public void empty() {
+        if (meterRegistry != null) {
+            empty.increment();
+        }
+    }
+
+    public void selection(long startNanos) {
+        if (meterRegistry != null) {
+            selection.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 泳道及其计数器
+     */
+    private static final class LaneCounter {
+
+        final GrayLane lane;
+
+        final Counter counter;
+
+        LaneCounter(GrayLane lane, Counter counter) {
+            this.lane = lane;
+            this.counter = counter;
+        }
+    }
+}
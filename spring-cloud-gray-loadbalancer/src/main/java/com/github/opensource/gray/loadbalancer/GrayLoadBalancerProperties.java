@@ -0,0 +1,165 @@
+package com.github.opensource.gray.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 灰度负载均衡配置
+ *
+ * @author double
+ * @Date 2026/10/17 14:30
+ */
+@ConfigurationProperties("spring.cloud.loadbalancer.gray")
+@Data
+public class GrayLoadBalancerProperties {
+
+    /**
+     * 按服务名配置的灰度路由规则
+     */
+    private Map<String, Service> services = new HashMap<>();
+
+    /**
+     * gray以外的泳道，例如v2-alpha、v2-beta。实例元数据中的version只有是gray或者在这里（以及fallbacks中）声明过，
+     * 才会划入对应的泳道；其它取值（例如Nacos的version: 1.0.0）按基线实例处理。
+     */
+    private List<String> lanes = new ArrayList<>();
+
+    /**
+     * 泳道的降级泳道，泳道名称 -> 降级泳道名称，例如v2-beta: v2-alpha。
+     * 泳道没有可用实例时路由到降级泳道；未配置时基线以外的泳道降级到gray，gray降级到base。
+     */
+    private Map<String, String> fallbacks = new HashMap<>();
+
+    /**
+     * 灰度分区快照缓存
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 泳道内的可用区偏好
+     */
+    private Zone zone = new Zone();
+
+    /**
+     * @return 声明的全部泳道：lanes以及fallbacks中出现的泳道
+     */
+    public Set<String> getDeclaredLanes() {
+        Set<String> declared = new LinkedHashSet<>(lanes);
+        fallbacks.forEach((name, fallback) -> {
+            declared.add(name);
+            declared.add(fallback);
+        });
+        return declared;
+    }
+
+    /**
+     * 获取服务的灰度路由规则
+     *
+     * @param serviceId 服务名称
+     * @return 未配置时返回null
+     */
+    public Service getService(String serviceId) {
+        return services.get(serviceId);
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * 是否使用{@link GrayCachingServiceInstanceListSupplier}代替默认的实例列表缓存，
+         * 开启后负载均衡器直接在内存中的分区快照上同步选择实例
+         */
+        private boolean enabled;
+
+        /**
+         * 快照的有效期，超过后在后台刷新；服务发现发布HeartbeatEvent时也会刷新
+         */
+        private Duration ttl = Duration.ofSeconds(35);
+    }
+
+    @Data
+    public static class Zone {
+
+        /**
+         * 是否在泳道内优先选择同可用区的实例，实例的可用区取自元数据zone
+         */
+        private boolean enabled;
+
+        /**
+         * 本地可用区，未配置时使用spring.cloud.loadbalancer.zone
+         */
+        private String zone;
+
+        /**
+         * 泳道内同可用区的实例少于该数量时溢出到泳道的全部实例
+         */
+        private int minInstances = 1;
+
+        /**
+         * 泳道内同可用区的实例占比低于该值（0~1）时溢出到泳道的全部实例
+         */
+        private double minRatio;
+    }
+
+    @Data
+    public static class Service {
+
+        /**
+         * 未携带灰度标记的请求中路由到灰度实例的流量百分比，取值0~100，支持两位小数，例如5表示5%。
+         * 携带灰度标记的请求不受影响，始终优先路由到灰度实例。
+         */
+        private double weight;
+
+        /**
+         * 粘性路由使用的请求头，例如user-id。
+         * 配置后按该请求头取值的哈希决定走灰度还是基线，同一个用户始终落在同一侧；
+         * 未配置或请求中不存在该请求头时，按平滑加权轮询分配流量。
+         */
+        private String stickyHeader;
+
+        /**
+         * 泳道内的实例选择策略，默认轮询
+         */
+        private Strategy strategy = Strategy.ROUND_ROBIN;
+
+        /**
+         * 一致性哈希策略使用的请求头，例如user-id。请求中不存在该请求头时按轮询选择
+         */
+        private String hashHeader;
+
+        /**
+         * 重试时泳道内的实例都已经尝试过，是否允许沿降级链换到其它泳道（最终到base）。
+         * 默认不允许，灰度请求重试时只在灰度泳道内排除已经失败的实例，不会落到基线实例上
+         */
+        private boolean retryFallback;
+    }
+
+    /**
+     * 泳道内的实例选择策略
+     */
+    public enum Strategy {
+
+        /**
+         * 轮询
+         */
+        ROUND_ROBIN,
+
+        /**
+         * 两次随机选择，按进行中的请求数和EWMA延迟选择负载较低的实例，适合只有一两个金丝雀实例的灰度泳道
+         */
+        LEAST_OUTSTANDING,
+
+        /**
+         * 按hash-header请求头的一致性哈希选择，同一个键总是落在泳道内的同一个实例上，适合实例内有本地缓存的服务
+         */
+        CONSISTENT_HASH
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayDecision;
+import com.github.opensource.gray.GrayLaneRegistry;
+import com.github.opensource.gray.GrayRequestContextHolder;
+import com.github.opensource.gray.GrayRoutingContext;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录各服务的灰度负载均衡器。
+ * <p>
+ * 负载均衡器创建在每个服务独立的子容器中，通过父容器中的该bean登记，供actuator端点查看各服务当前的泳道分区，
+ * 以及一次为多个服务批量选择实例。
+ *
+ * @author double
+ * @Date 2026/10/17 19:40
+ */
+public class GrayLoadBalancerRegistry {
+
+    private final Map<String, GrayRoundRobinLoadBalancer> loadBalancers = new ConcurrentHashMap<>();
+
+    public void register(GrayRoundRobinLoadBalancer loadBalancer) {
+        loadBalancers.put(loadBalancer.getServiceId(), loadBalancer);
+    }
+
+    public GrayRoundRobinLoadBalancer get(String serviceId) {
+        return loadBalancers.get(serviceId);
+    }
+
+    public Collection<GrayRoundRobinLoadBalancer> getAll() {
+        return Collections.unmodifiableCollection(loadBalancers.values());
+    }
+
+    /**
+     * 按当前请求的灰度路由上下文，为多个服务批量选择实例
+     *
+     * @param serviceIds 服务名称
+     * @return 服务名称 -> 选中的实例
+     * @see #choose(Collection, GrayDecision)
+     */
+    public Map<String, ServiceInstance> choose(Collection<String> serviceIds) {
+        GrayRoutingContext routingContext = GrayRequestContextHolder.getRoutingContext();
+        GrayDecision decision = routingContext != null
+                ? routingContext.getDecision() : GrayDecision.of(GrayLaneRegistry.getInstance().base());
+        return choose(serviceIds, decision);
+    }
+
+    /**
+     * 为多个服务批量选择实例，适用于一个入站请求并发调用多个下游服务的聚合场景。
+     * 灰度决策只解析一次，各服务直接在缓存的分区快照上同步选择，不订阅服务发现。
+     * 尽力而为：选择不经过LoadBalancerLifecycle，没有请求开始、结束的回调，也不参与重试排除。
+     * 尚未加载过实例列表（还没有经过负载均衡器的请求）、没有可用实例或者使用least-outstanding策略
+     * （依赖生命周期统计进行中的请求数）的服务不在结果中，调用方按常规负载均衡处理。
+     *
+     * @param serviceIds 服务名称
+     * @param decision   灰度决策
+     * @return 服务名称 -> 选中的实例
+     */
+    public Map<String, ServiceInstance> choose(Collection<String> serviceIds, GrayDecision decision) {
+        Map<String, ServiceInstance> result = new LinkedHashMap<>(serviceIds.size() * 2);
+        for (String serviceId : serviceIds) {
+            GrayRoundRobinLoadBalancer loadBalancer = loadBalancers.get(serviceId);
+            ServiceInstance instance = loadBalancer == null ? null : loadBalancer.chooseCached(decision);
+            if (instance != null) {
+                result.put(serviceId, instance);
+            }
+        }
+        return result;
+    }
+}
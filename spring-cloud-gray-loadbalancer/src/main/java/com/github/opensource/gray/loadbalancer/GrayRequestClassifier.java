@@ -0,0 +1,131 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayDecision;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import com.github.opensource.gray.GrayRequestContextHolder;
+import com.github.opensource.gray.GrayRoutingContext;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 负载均衡请求的灰度分类器，确定请求的{@link GrayDecision}。
+ * <p>
+ * 网关已经在attributes中写入路由决策时直接使用，不再解析请求头；否则直接从{@link RequestDataContext}/{@link RequestData}
+ * 以及Reactor Context中读取灰度标记，不做反射和类型转换。
+ * 灰度标记只在{@link GrayLaneRegistry}中查找，未驻留的取值按基线处理。
+ * 分类结果会以{@link GrayDecision#ATTRIBUTE}缓存到请求的attributes中，重试或基于hint的Supplier再次分类同一个请求时直接复用。
+ * 只有可写的attributes（网关的exchange attributes、阻塞客户端的HashMap）才会缓存，
+ * WebClient传入的只读attributes每次重新读取请求头。
+ *
+ * @author double
+ * @Date 2026/10/17 11:05
+ */
+public final class GrayRequestClassifier {
+
+    private GrayRequestClassifier() {
+    }
+
+    /**
+     * 对负载均衡请求进行灰度分类
+     *
+     * @param request  负载均衡请求
+     * @param registry 泳道注册表
+     * @return 请求所属的泳道
+     */
+    public static GrayLane classify(Request<?> request, GrayLaneRegistry registry) {
+        return decide(request, null, registry).getLane();
+    }
+
+    /**
+     * 对负载均衡请求进行灰度分类
+     *
+     * @param request    负载均衡请求
+     * @param contextTag Reactor Context中的灰度标记，可以为null
+     * @param registry   泳道注册表
+     * @return 请求所属的泳道，没有灰度标记或标记未驻留时返回基线泳道
+     */
+    public static GrayLane classify(Request<?> request, String contextTag, GrayLaneRegistry registry) {
+        return decide(request, contextTag, registry).getLane();
+    }
+
+    /**
+     * 确定负载均衡请求的路由决策，依次读取：
+     * <ol>
+     *     <li>attributes中网关写入或者缓存的路由决策</li>
+     *     <li>网关写入exchange attributes的灰度标记</li>
+     *     <li>请求头version</li>
+     *     <li>Reactor Context中的灰度标记</li>
+     * </ol>
+     *
+     * @param request    负载均衡请求
+     * @param contextTag Reactor Context中的灰度标记，可以为null
+     * @param registry   泳道注册表
+     * @return 路由决策，没有灰度标记或标记未驻留时为基线泳道
+     */
+    public static GrayDecision decide(Request<?> request, String contextTag, GrayLaneRegistry registry) {
+        Object context = request == null ? null : request.getContext();
+        if (!(context instanceof RequestDataContext dataContext) || dataContext.getClientRequest() == null) {
+            return GrayDecision.of(lane(contextTag, registry));
+        }
+        RequestData requestData = dataContext.getClientRequest();
+        Map<String, Object> attributes = requestData.getAttributes();
+        String tag = null;
+        if (attributes != null) {
+            if (attributes.get(GrayDecision.ATTRIBUTE) instanceof GrayDecision decision) {
+                return decision;
+            }
+            if (attributes.get(GrayConstant.GRAY_TAG_ATTRIBUTE) instanceof String attributeTag) {
+                tag = attributeTag;
+            }
+        }
+        if (tag == null) {
+            HttpHeaders headers = requestData.getHeaders();
+            tag = headers == null ? null : headers.getFirst(GrayConstant.HEADER_VERSION_GRAY);
+        }
+        GrayDecision decision = decision(tag != null ? tag : contextTag, registry);
+        if (attributes instanceof ConcurrentMap || attributes instanceof HashMap) {
+            attributes.put(GrayDecision.ATTRIBUTE, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * 灰度标记与当前线程入站请求的路由上下文相同时（例如Feign在请求线程上调用负载均衡器），复用已经解析的决策
+     */
+    private static GrayDecision decision(String tag, GrayLaneRegistry registry) {
+        GrayRoutingContext routingContext = GrayRequestContextHolder.getRoutingContext();
+        if (tag != null && routingContext != null && tag.equals(routingContext.getGrayTag())) {
+            return routingContext.getDecision();
+        }
+        return GrayDecision.of(lane(tag, registry));
+    }
+
+    private static GrayLane lane(String tag, GrayLaneRegistry registry) {
+        GrayLane lane = registry.find(tag);
+        return lane != null ? lane : registry.base();
+    }
+
+    /**
+     * 读取负载均衡请求中的请求头
+     *
+     * @param request 负载均衡请求
+     * @param name    请求头名称
+     * @return 请求头的第一个值，不存在时返回null
+     */
+    public static String getHeader(Request<?> request, String name) {
+        Object context = request == null ? null : request.getContext();
+        if (!(context instanceof RequestDataContext dataContext) || dataContext.getClientRequest() == null) {
+            return null;
+        }
+        HttpHeaders headers = dataContext.getClientRequest().getHeaders();
+        return headers == null ? null : headers.getFirst(name);
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayDecision;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * 泳道内轮询，每个泳道使用独立的游标，灰度和基线流量互不影响
+ *
+ * @author double
+ * @Date 2026/10/17 20:08
+ */
+public class GrayRoundRobinChooser implements GrayInstanceChooser {
+
+    private final GrayLaneCursors cursors;
+
+    public GrayRoundRobinChooser(int seedPosition) {
+        this.cursors = new GrayLaneCursors(seedPosition);
+    }
+
+    @Override
+    public ServiceInstance choose(int laneId, ServiceInstance[] candidates, Request<?> request, GrayDecision decision) {
+        GrayLaneCursor cursor = laneId == ALL_INSTANCES ? cursors.allInstances() : cursors.get(laneId);
+        return candidates[cursor.nextIndex(candidates.length)];
+    }
+}
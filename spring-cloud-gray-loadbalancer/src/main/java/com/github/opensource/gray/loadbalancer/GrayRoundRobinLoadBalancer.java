@@ -1,11 +1,15 @@
 package com.github.opensource.gray.loadbalancer;
 
-import cn.hutool.core.collection.CollectionUtil;
-import cn.hutool.core.convert.Convert;
-import cn.hutool.core.lang.TypeReference;
 import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayDecision;
+import com.github.opensource.gray.GrayDecisionEvent;
+import com.github.opensource.gray.GrayDecisionReason;
+import com.github.opensource.gray.GrayDecisionTracer;
+import com.github.opensource.gray.GrayInstanceDescriptors;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import com.github.opensource.gray.GrayTriedInstances;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.loadbalancer.*;
@@ -13,17 +17,17 @@ import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSuppli
 import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
 import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
 import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
-import org.springframework.http.HttpHeaders;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 
 /**
  * 自定义灰度负载均衡器，基于灰度的RoundRobin算法
+ * 先确定请求所属的泳道，再在泳道内按服务配置的策略（轮询、least-outstanding或一致性哈希）选择实例
  * 参考：org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer
  * @author double
  * @Date 2024/7/20 17:12
@@ -31,12 +35,63 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GrayRoundRobinLoadBalancer implements ReactorServiceInstanceLoadBalancer {
 
-    final AtomicInteger position;
-
     final String serviceId;
 
     private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
 
+    /**
+     * 路由配置快照，配置刷新时整体替换，请求路径上每次只读取一次
+     */
+    private final Supplier<GrayRoutingConfig> routingConfig;
+
+    private final GrayLaneRegistry laneRegistry = GrayLaneRegistry.getInstance();
+
+    /**
+     * 实例描述缓存，实例列表变化时只解析新增或元数据变化的实例
+     */
+    private final GrayInstanceDescriptors instanceDescriptors = new GrayInstanceDescriptors(laneRegistry);
+
+    private final GrayLoadBalancerMetrics metrics;
+
+    private final GrayDecisionTracer tracer = GrayDecisionTracer.getInstance();
+
+    /**
+     * 服务没有灰度实例时使用的路由决策
+     */
+    private final GrayDecision baseDecision = GrayDecision.of(laneRegistry.base());
+
+    /**
+     * 泳道内轮询
+     */
+    private final GrayInstanceChooser roundRobinChooser;
+
+    /**
+     * 泳道内按进行中的请求数和EWMA延迟选择
+     */
+    private final GrayInstanceChooser leastOutstandingChooser;
+
+    /**
+     * 泳道内按请求头一致性哈希选择
+     */
+    private final GrayInstanceChooser consistentHashChooser;
+
+    private final GrayInstanceStatsRegistry instanceStats;
+
+    /**
+     * 灰度流量权重调度表的游标
+     */
+    private final GrayLaneCursor weightCursor = new GrayLaneCursor(0);
+
+    /**
+     * 服务实例列表的Supplier，首次获取后缓存
+     */
+    private volatile ServiceInstanceListSupplier supplier;
+
+    /**
+     * 最近一次实例列表的灰度分区快照
+     */
+    private volatile GrayInstancePartition partition;
+
     /**
      * @param serviceInstanceListSupplierProvider a provider of
      * {@link ServiceInstanceListSupplier} that will be used to get available instances
@@ -55,80 +110,389 @@ public class GrayRoundRobinLoadBalancer implements ReactorServiceInstanceLoadBal
      */
     public GrayRoundRobinLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
                                       String serviceId, int seedPosition) {
+        this(serviceInstanceListSupplierProvider, serviceId, () -> GrayRoutingConfig.EMPTY,
+                GrayLoadBalancerMetrics.NOOP, new GrayInstanceStatsRegistry(), seedPosition);
+    }
+
+    /**
+     * @param serviceInstanceListSupplierProvider a provider of
+     * {@link ServiceInstanceListSupplier} that will be used to get available instances
+     * @param serviceId id of the service for which to choose an instance
+     * @param routingConfig current routing config snapshot, e.g. {@link GrayRoutingConfigRefresher}
+     * @param metrics gray load balancer metrics of the service
+     * @param instanceStats per-instance load statistics fed by {@link GrayInstanceStatsLifecycle}
+     * @param seedPosition Round Robin element position marker
+     */
+    public GrayRoundRobinLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                      String serviceId, Supplier<GrayRoutingConfig> routingConfig,
+                                      GrayLoadBalancerMetrics metrics, GrayInstanceStatsRegistry instanceStats,
+                                      int seedPosition) {
         this.serviceId = serviceId;
         this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
-        this.position = new AtomicInteger(seedPosition);
+        this.routingConfig = routingConfig;
+        this.metrics = metrics;
+        this.instanceStats = instanceStats;
+        this.roundRobinChooser = new GrayRoundRobinChooser(seedPosition);
+        this.leastOutstandingChooser = new GrayLeastOutstandingChooser(instanceStats);
+        this.consistentHashChooser = new GrayConsistentHashChooser(serviceId, routingConfig, roundRobinChooser);
     }
 
     @Override
     public Mono<Response<ServiceInstance>> choose(Request request) {
-        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
-                .getIfAvailable(NoopServiceInstanceListSupplier::new);
-        return supplier.get(request).next()
-                .map(serviceInstances -> processInstanceResponse(supplier, serviceInstances, request));
+        ServiceInstanceListSupplier supplier = supplier();
+        // 缓存的分区快照可用时直接在内存中同步选择，不再订阅服务发现
+        if (supplier instanceof GrayCachingServiceInstanceListSupplier cachingSupplier) {
+            GrayInstancePartition cached = cachingSupplier.getPartition();
+            // 泳道新增或淘汰后缓存的快照在后台刷新，刷新完成前在本地重新分区
+            if (cached != null && !cached.isStale(laneRegistry)) {
+                return Mono.deferContextual(context -> Mono.just(processInstanceResponse(supplier,
+                        usePartition(cached), request, context.getOrDefault(GrayConstant.GRAY_TAG_ATTRIBUTE, null))));
+            }
+        }
+        // 从Reactor Context中读取灰度标记，网关和WebClient调用不依赖ThreadLocal
+        return Mono.deferContextual(context -> supplier.get(request).next()
+                .map(serviceInstances -> processInstanceResponse(supplier, partition(serviceInstances), request,
+                        context.getOrDefault(GrayConstant.GRAY_TAG_ATTRIBUTE, null))));
+    }
+
+    /**
+     * 获取服务实例列表的Supplier，第一次获取到后缓存，避免每次请求都通过ObjectProvider查找
+     */
+    private ServiceInstanceListSupplier supplier() {
+        ServiceInstanceListSupplier current = this.supplier;
+        if (current == null) {
+            current = serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+            if (!(current instanceof NoopServiceInstanceListSupplier)) {
+                this.supplier = current;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在当前缓存的分区快照上按给定的灰度决策同步选择实例，不订阅服务发现，供批量选择使用。
+     * 这里的选择不经过LoadBalancerLifecycle，不会记录进行中的请求数和延迟，
+     * 因此使用least-outstanding策略的服务不支持，返回null由调用方按常规负载均衡处理
+     *
+     * @param decision 灰度决策
+     * @return 选中的实例，尚无分区快照、没有可用实例或者服务使用least-outstanding策略时返回null
+     */
+    public ServiceInstance chooseCached(GrayDecision decision) {
+        if (routingConfig.get().getService(serviceId).getStrategy()
+                == GrayLoadBalancerProperties.Strategy.LEAST_OUTSTANDING) {
+            return null;
+        }
+        ServiceInstanceListSupplier supplier = supplier();
+        GrayInstancePartition cached = supplier instanceof GrayCachingServiceInstanceListSupplier cachingSupplier
+                ? cachingSupplier.getPartition() : null;
+        GrayInstancePartition current = cached != null && !cached.isStale(laneRegistry)
+                ? usePartition(cached) : this.partition;
+        if (current == null) {
+            return null;
+        }
+        if (current.isStale(laneRegistry)) {
+            current = partition(current.getInstances());
+        }
+        Response<ServiceInstance> response = processInstanceResponse(supplier, current, null, null, decision);
+        return response.hasServer() ? response.getServer() : null;
     }
 
     private Response<ServiceInstance> processInstanceResponse(ServiceInstanceListSupplier supplier,
-                                                              List<ServiceInstance> serviceInstances,
-                                                              Request request) {
-        Response<ServiceInstance> serviceInstanceResponse = getInstanceResponse(serviceInstances, request);
+                                                              GrayInstancePartition partition,
+                                                              Request request, String contextTag) {
+        return processInstanceResponse(supplier, partition, request, contextTag, null);
+    }
+
+    private Response<ServiceInstance> processInstanceResponse(ServiceInstanceListSupplier supplier,
+                                                              GrayInstancePartition partition,
+                                                              Request request, String contextTag,
+                                                              GrayDecision decision) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+        Response<ServiceInstance> serviceInstanceResponse = getInstanceResponse(partition, request, contextTag,
+                decision);
+        metrics.selection(start);
         if (supplier instanceof SelectedInstanceCallback && serviceInstanceResponse.hasServer()) {
             ((SelectedInstanceCallback) supplier).selectedServiceInstance(serviceInstanceResponse.getServer());
         }
         return serviceInstanceResponse;
     }
 
-    private Response<ServiceInstance> getInstanceResponse(List<ServiceInstance> instances, Request request) {
-        if (instances.isEmpty()) {
+    /**
+     * @param decision 已经确定的灰度决策，为null时对请求进行分类
+     */
+    private Response<ServiceInstance> getInstanceResponse(GrayInstancePartition partition, Request request,
+                                                          String contextTag, GrayDecision decision) {
+        if (partition.isEmpty()) {
             if (log.isWarnEnabled()) {
                 log.warn("No servers available for service: " + serviceId);
             }
-            return new EmptyResponse();
+            metrics.empty();
+            return trace(new EmptyResponse(), decision, GrayInstanceChooser.ALL_INSTANCES, GrayDecisionReason.EMPTY);
+        }
+        GrayServiceRouting service = routingConfig.get().getService(serviceId);
+        GrayTriedInstances tried = triedInstances(request);
+        if (!partition.hasGray()) {
+            if (tried != null) {
+                return retry(partition, request, service, baseDecision, GrayLaneRegistry.BASE_ID, tried);
+            }
+            // 服务没有灰度实例时全部是基线实例，不做灰度分类，直接在基线泳道内选择
+            return trace(choose(GrayLaneRegistry.BASE_ID, partition.getPreferred(GrayLaneRegistry.BASE_ID), request,
+                    baseDecision, chooser(service)), decision, GrayLaneRegistry.BASE_ID,
+                    GrayDecisionReason.NO_GRAY_INSTANCES);
         }
-        // 获取ServiceInstance列表
+        if (decision == null) {
+            decision = GrayRequestClassifier.decide(request, contextTag, laneRegistry);
+        }
+        int laneId = selectLane(partition, request, service, decision);
+        if (tried != null) {
+            return retry(partition, request, service, decision, laneId, tried);
+        }
+        // 开启可用区偏好时优先使用泳道内同可用区的实例
+        Response<ServiceInstance> response = choose(laneId, partition.getPreferred(laneId), request, decision,
+                chooser(service));
+        return trace(response, decision, laneId, reason(decision, laneId));
+    }
 
-        instances = getInstances(instances, request);
+    /**
+     * 重试或对冲请求时获取已经尝试过的实例。
+     * 重试时上一次的实例来自RetryableRequestContext，更早尝试过的实例保存在请求attributes中；
+     * 普通请求返回null，不分配任何对象。
+     */
+    private static GrayTriedInstances triedInstances(Request request) {
+        if (request == null || !(request.getContext() instanceof RequestDataContext context)) {
+            return null;
+        }
+        Map<String, Object> attributes = context.getClientRequest() == null
+                ? null : context.getClientRequest().getAttributes();
+        GrayTriedInstances tried = attributes == null
+                ? null : (GrayTriedInstances) attributes.get(GrayTriedInstances.ATTRIBUTE);
+        if (context instanceof RetryableRequestContext retryable && retryable.getPreviousServiceInstance() != null) {
+            if (tried == null) {
+                tried = new GrayTriedInstances();
+                if (attributes != null) {
+                    try {
+                        attributes.put(GrayTriedInstances.ATTRIBUTE, tried);
+                    } catch (UnsupportedOperationException e) {
+                        // attributes不可修改时只排除上一次的实例
+                    }
+                }
+            }
+            tried.add(retryable.getPreviousServiceInstance());
+        }
+        return tried;
+    }
+
+    /**
+     * 排除已经尝试过的实例后选择：先在泳道内同可用区、再在泳道的全部实例中排除；
+     * 泳道内的实例都尝试过时，服务配置了retry-fallback才沿降级链换到其它泳道（最终到base），
+     * 否则留在本泳道内重新选择，灰度请求不会在重试时悄悄落到基线实例上。
+     * 还没有尝试过任何实例时（对冲的主请求）正常选择，并记下选中的实例
+     */
+    private Response<ServiceInstance> retry(GrayInstancePartition partition, Request request,
+                                            GrayServiceRouting service, GrayDecision decision, int laneId,
+                                            GrayTriedInstances tried) {
+        GrayInstanceChooser chooser = chooser(service);
+        if (tried.isEmpty()) {
+            // 对冲的主请求：正常选择，记下选中的实例，对冲请求将排除它
+            Response<ServiceInstance> response = choose(laneId, partition.getPreferred(laneId), request, decision,
+                    chooser);
+            if (response.hasServer()) {
+                tried.add(response.getServer());
+            }
+            return trace(response, decision, laneId, laneId == GrayLaneRegistry.BASE_ID && !partition.hasGray()
+                    ? GrayDecisionReason.NO_GRAY_INSTANCES : reason(decision, laneId));
+        }
+        ServiceInstance[] candidates = tried.exclude(partition.getPreferred(laneId));
+        if (candidates.length == 0 && laneId != GrayInstanceChooser.ALL_INSTANCES) {
+            candidates = tried.exclude(partition.getLane(laneId));
+        }
+        if (candidates.length == 0 && laneId != GrayInstanceChooser.ALL_INSTANCES && service.isRetryFallback()) {
+            int next = laneRegistry.fallbackOf(laneId);
+            for (int hops = laneRegistry.size(); hops > 0 && next != GrayLaneRegistry.NO_FALLBACK; hops--) {
+                candidates = tried.exclude(partition.getLane(next));
+                if (candidates.length > 0) {
+                    metrics.fallback(decision.getLane());
+                    laneId = next;
+                    break;
+                }
+                next = laneRegistry.fallbackOf(next);
+            }
+        }
+        if (candidates.length == 0) {
+            candidates = partition.getPreferred(laneId);
+        }
+        // 一致性哈希的哈希环按泳道缓存，排除实例后的候选列表按轮询选择，避免重建哈希环
+        if (chooser == consistentHashChooser) {
+            chooser = roundRobinChooser;
+        }
+        Response<ServiceInstance> response = choose(laneId, candidates, request, decision, chooser);
+        if (response.hasServer()) {
+            tried.add(response.getServer());
+        }
+        return trace(response, decision, laneId, GrayDecisionReason.RETRY);
+    }
+
+    /**
+     * 根据请求的泳道和实际路由的泳道推断决策原因
+     */
+    private static GrayDecisionReason reason(GrayDecision decision, int laneId) {
+        if (laneId == GrayInstanceChooser.ALL_INSTANCES) {
+            return GrayDecisionReason.ALL_INSTANCES;
+        }
+        if (laneId == decision.getLane().getId()) {
+            return GrayDecisionReason.LANE;
+        }
+        return decision.getLane().isBase() ? GrayDecisionReason.WEIGHT : GrayDecisionReason.FALLBACK;
+    }
+
+    /**
+     * 被采样时记录负载均衡的决策：请求的泳道、路由的泳道、选中的实例以及原因
+     */
+    private Response<ServiceInstance> trace(Response<ServiceInstance> response, GrayDecision decision, int laneId,
+                                            GrayDecisionReason reason) {
+        if (!tracer.sample()) {
+            return response;
+        }
+        ServiceInstance instance = response.hasServer() ? response.getServer() : null;
+        tracer.record(GrayDecisionEvent.builder()
+                .component("loadbalancer")
+                .serviceId(serviceId)
+                .grayTag(decision == null ? null : decision.getLane().getName())
+                .lane(laneName(laneId))
+                .instance(instance == null ? null : instance.getHost() + ":" + instance.getPort())
+                .reason(reason)
+                .build());
+        return response;
+    }
+
+    private String laneName(int laneId) {
+        GrayLane lane = laneId == GrayInstanceChooser.ALL_INSTANCES ? null : laneRegistry.get(laneId);
+        return lane == null ? null : lane.getName();
+    }
+
+    private Response<ServiceInstance> choose(int laneId, ServiceInstance[] candidates, Request request,
+                                             GrayDecision decision, GrayInstanceChooser chooser) {
+        if (candidates.length == 0) {
+            if (log.isWarnEnabled()) {
+                String lane = laneId == GrayInstanceChooser.ALL_INSTANCES ? "all instances" : laneName(laneId);
+                log.warn("No servers available in lane: " + lane + " for service: " + serviceId);
+            }
+            metrics.empty();
+            return new EmptyResponse();
+        }
         // Do not move position when there is only 1 instance, especially some suppliers
         // have already filtered instances
-        if (instances.size() == 1) {
-            return new DefaultResponse(instances.get(0));
+        if (candidates.length == 1) {
+            return new DefaultResponse(candidates[0]);
         }
 
-        // Ignore the sign bit, this allows pos to loop sequentially from 0 to
-        // Integer.MAX_VALUE
-        int pos = this.position.incrementAndGet() & Integer.MAX_VALUE;
-
-        ServiceInstance instance = instances.get(pos % instances.size());
+        // 在泳道内按服务配置的策略选择实例
+        ServiceInstance instance = chooser.choose(laneId, candidates, request, decision);
 
         return new DefaultResponse(instance);
     }
 
-    private List<ServiceInstance> getInstances(List<ServiceInstance> instances, Request request) {
-        DefaultRequest<RequestDataContext> defaultRequest = Convert
-                .convert(new TypeReference<DefaultRequest<RequestDataContext>>() {
-                }, request);
-        RequestDataContext dataContext = defaultRequest.getContext();
-        RequestData requestData = dataContext.getClientRequest();
-        HttpHeaders headers = requestData.getHeaders();
-        // 获取灰度标记
-        String gray = CollectionUtil.get(headers.get(GrayConstant.HEADER_VERSION_GRAY), 0);
-        // 灰度标记不为空并且标记为true, 筛选ServiceInstance
-        if (StringUtils.isNotBlank(gray) && StringUtils.equals(GrayConstant.HEADER_VERSION_FLAG_GRAY, gray)) {
-            // 灰度发布请求，得到新服务实例列表
-            List<ServiceInstance> findInstances =  instances.stream()
-                    .filter(instance -> StringUtils.isNotBlank(instance.getMetadata().get(GrayConstant.HEADER_VERSION_GRAY))
-                            && GrayConstant.HEADER_VERSION_FLAG_GRAY.equals(instance.getMetadata().get(GrayConstant.HEADER_VERSION_GRAY)))
-                    .collect(Collectors.toList());
-            // 存在灰度发布节点
-            if (CollectionUtil.isNotEmpty(findInstances)) {
-                instances = findInstances;
+    /**
+     * 获取实例列表对应的分区快照，同一份实例列表只分区一次
+     */
+    private GrayInstancePartition partition(List<ServiceInstance> instances) {
+        GrayInstancePartition current = this.partition;
+        // 可用区偏好没有变化时配置快照中始终是同一个对象，其它配置的刷新不会使分区快照失效
+        GrayZonePreference zonePreference = routingConfig.get().getZonePreference();
+        if (current == null || !current.isSnapshotOf(instances) || current.getZonePreference() != zonePreference
+                || current.isStale(laneRegistry)) {
+            current = usePartition(GrayInstancePartition.of(instances, instanceDescriptors, zonePreference));
+        }
+        return current;
+    }
+
+    /**
+     * 切换到新的分区快照
+     */
+    private GrayInstancePartition usePartition(GrayInstancePartition partition) {
+        if (this.partition != partition) {
+            this.partition = partition;
+            // 清理已下线实例的负载统计
+            instanceStats.retain(partition.getAll());
+        }
+        return partition;
+    }
+
+    /**
+     * 确定本次请求使用的泳道
+     *
+     * @return 泳道ID，降级链上都没有实例时返回{@link GrayInstanceChooser#ALL_INSTANCES}
+     */
+    private int selectLane(GrayInstancePartition partition, Request request, GrayServiceRouting service,
+                           GrayDecision decision) {
+        GrayLane lane = decision.getLane();
+        metrics.classified(lane);
+        if (lane.isBase()) {
+            // 未携带灰度标记的请求按配置的灰度权重分流
+            if (partition.getGray().length > 0 && routeToGrayByWeight(request, service, decision)) {
+                return GrayLaneRegistry.GRAY_ID;
+            }
+            if (partition.getBase().length > 0) {
+                return GrayLaneRegistry.BASE_ID;
+            }
+            // 没有基线实例（例如全部实例都声明了泳道）时使用全部实例，不能让未携带灰度标记的请求全部失败
+            metrics.fallback(lane);
+            return GrayInstanceChooser.ALL_INSTANCES;
+        }
+        // 泳道没有实例时沿降级链查找，例如v2-beta → gray → base，最多走注册表中泳道数量的步数，避免配置成环；
+        // 决策中的泳道在此期间被淘汰时（ID可能已经分配给其它泳道）从gray开始降级
+        int laneId = laneRegistry.get(lane.getId()) == lane ? lane.getId() : GrayLaneRegistry.GRAY_ID;
+        for (int hops = laneRegistry.size(); hops > 0 && laneId != GrayLaneRegistry.NO_FALLBACK; hops--) {
+            if (partition.getLane(laneId).length > 0) {
+                if (laneId != lane.getId()) {
+                    metrics.fallback(lane);
+                }
+                return laneId;
             }
-        } else {
-            instances =  instances.stream()
-                    .filter(instance -> StringUtils.isBlank(instance.getMetadata().get(GrayConstant.HEADER_VERSION_GRAY))
-                            || !GrayConstant.HEADER_VERSION_FLAG_GRAY.equals(instance.getMetadata().get(GrayConstant.HEADER_VERSION_GRAY)))
-                    .collect(Collectors.toList());
+            laneId = laneRegistry.fallbackOf(laneId);
         }
-        return instances;
+        // 降级链上都没有实例时使用全部节点
+        metrics.fallback(lane);
+        return GrayInstanceChooser.ALL_INSTANCES;
+    }
+
+    private GrayInstanceChooser chooser(GrayServiceRouting service) {
+        return switch (service.getStrategy()) {
+            case LEAST_OUTSTANDING -> leastOutstandingChooser;
+            case CONSISTENT_HASH -> consistentHashChooser;
+            default -> roundRobinChooser;
+        };
+    }
+
+    /**
+     * 按服务配置的灰度流量权重判断基线请求是否分流到灰度实例。
+     * 配置了粘性请求头且请求中存在时按其哈希确定（网关已计算哈希时直接使用），否则按平滑加权轮询调度表分配。
+     */
+    private boolean routeToGrayByWeight(Request request, GrayServiceRouting service, GrayDecision decision) {
+        GrayTrafficWeight weight = service.getTrafficWeight();
+        if (!weight.isEnabled()) {
+            return false;
+        }
+        if (service.getStickyHeader() != null) {
+            if (decision.hasStickyHash(service.getStickyHeader())) {
+                return weight.isGrayByHash(decision.getStickyHash());
+            }
+            String stickyKey = GrayRequestClassifier.getHeader(request, service.getStickyHeader());
+            if (stickyKey != null) {
+                return weight.isGray(stickyKey);
+            }
+        }
+        return weight.isGray(weightCursor.next());
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * @return 最近一次实例列表的灰度分区快照，尚未有请求时为null
+     */
+    public GrayInstancePartition getPartition() {
+        return partition;
     }
 }
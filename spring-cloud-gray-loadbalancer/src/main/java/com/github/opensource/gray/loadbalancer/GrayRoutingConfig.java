@@ -0,0 +1,133 @@
+package com.github.opensource.gray.loadbalancer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 灰度负载均衡的路由配置快照，由{@link GrayLoadBalancerProperties}绑定而来，创建后不再变化。
+ * <p>
+ * 负载均衡器在请求路径上只读取一次当前快照，不再访问可变的配置对象，也不会读到刷新到一半的配置。
+ * 配置刷新时通过{@link #update}按服务比较：配置没有变化的服务沿用原来的{@link GrayServiceRouting}，
+ * 可用区偏好没有变化时沿用原来的{@link GrayZonePreference}，其它服务缓存的分区快照不会因此失效。
+ *
+ * @author double
+ * @Date 2026/10/17 23:25
+ */
+public final class GrayRoutingConfig {
+
+    /**
+     * 没有任何配置
+     */
+    public static final GrayRoutingConfig EMPTY = new GrayRoutingConfig(Collections.emptyMap(),
+            GrayZonePreference.NONE, Collections.emptyMap(), Collections.emptySet());
+
+    private final Map<String, GrayServiceRouting> services;
+
+    private final GrayZonePreference zonePreference;
+
+    private final Map<String, String> fallbacks;
+
+    private final Set<String> declaredLanes;
+
+    private GrayRoutingConfig(Map<String, GrayServiceRouting> services, GrayZonePreference zonePreference,
+                              Map<String, String> fallbacks, Set<String> declaredLanes) {
+        this.services = services;
+        this.zonePreference = zonePreference;
+        this.fallbacks = fallbacks;
+        this.declaredLanes = declaredLanes;
+    }
+
+    /**
+     * @param properties 灰度负载均衡配置
+     * @param localZone  spring.cloud.loadbalancer.zone，没有时为null
+     * @return 配置快照
+     */
+    public static GrayRoutingConfig of(GrayLoadBalancerProperties properties, String localZone) {
+        return EMPTY.update(properties, localZone);
+    }
+
+    /**
+     * 按新的配置生成快照，没有变化的部分沿用本快照中的对象；整体没有变化时返回本快照
+     *
+     * @param properties 新绑定的灰度负载均衡配置
+     * @param localZone  spring.cloud.loadbalancer.zone，没有时为null
+     * @return 配置快照
+     */
+    public GrayRoutingConfig update(GrayLoadBalancerProperties properties, String localZone) {
+        boolean changed = properties.getServices().size() != services.size();
+        Map<String, GrayServiceRouting> updated = new HashMap<>(properties.getServices().size() * 2);
+        for (Map.Entry<String, GrayLoadBalancerProperties.Service> entry : properties.getServices().entrySet()) {
+            GrayServiceRouting previous = services.get(entry.getKey());
+            if (previous != null && previous.matches(entry.getValue())) {
+                updated.put(entry.getKey(), previous);
+            } else {
+                updated.put(entry.getKey(), GrayServiceRouting.of(entry.getValue()));
+                changed = true;
+            }
+        }
+        GrayZonePreference zone = zonePreference.matches(properties.getZone(), localZone)
+                ? zonePreference : GrayZonePreference.of(properties.getZone(), localZone);
+        boolean fallbacksChanged = !fallbacks.equals(properties.getFallbacks());
+        Set<String> lanes = properties.getDeclaredLanes();
+        boolean lanesChanged = !declaredLanes.equals(lanes);
+        if (!changed && zone == zonePreference && !fallbacksChanged && !lanesChanged) {
+            return this;
+        }
+        return new GrayRoutingConfig(Collections.unmodifiableMap(updated), zone, fallbacksChanged
+                ? Collections.unmodifiableMap(new HashMap<>(properties.getFallbacks())) : fallbacks,
+                lanesChanged ? Collections.unmodifiableSet(lanes) : declaredLanes);
+    }
+
+    /**
+     * 与上一份快照比较，找出路由配置发生变化（新增、修改或删除）的服务
+     *
+     * @param previous 上一份快照
+     * @return 服务名称
+     */
+    public Set<String> changedServices(GrayRoutingConfig previous) {
+        Set<String> changed = new LinkedHashSet<>();
+        services.forEach((serviceId, service) -> {
+            if (previous.services.get(serviceId) != service) {
+                changed.add(serviceId);
+            }
+        });
+        previous.services.keySet().forEach(serviceId -> {
+            if (!services.containsKey(serviceId)) {
+                changed.add(serviceId);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * @param serviceId 服务名称
+     * @return 服务的路由配置，未配置时返回{@link GrayServiceRouting#DEFAULT}
+     */
+    public GrayServiceRouting getService(String serviceId) {
+        return services.getOrDefault(serviceId, GrayServiceRouting.DEFAULT);
+    }
+
+    /**
+     * @return 可用区偏好，配置没有变化时始终是同一个对象
+     */
+    public GrayZonePreference getZonePreference() {
+        return zonePreference;
+    }
+
+    /**
+     * @return 泳道的降级泳道，泳道名称 -> 降级泳道名称
+     */
+    public Map<String, String> getFallbacks() {
+        return fallbacks;
+    }
+
+    /**
+     * @return 声明的泳道：lanes以及降级关系中出现的泳道
+     */
+    public Set<String> getDeclaredLanes() {
+        return declaredLanes;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayLaneRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 发布灰度负载均衡的路由配置快照。
+ * <p>
+ * 配置中心推送变更（EnvironmentChangeEvent）并且变更的配置项在spring.cloud.loadbalancer.gray下时，
+ * 从Environment重新绑定一份{@link GrayLoadBalancerProperties}，与当前快照按服务比较后生成新的{@link GrayRoutingConfig}，
+ * 通过一个volatile引用整体替换。负载均衡器不需要重建，请求路径上只读取这个引用；
+ * 只有配置发生变化的服务重新构造权重调度表，可用区偏好没有变化时各服务缓存的分区快照继续有效。
+ *
+ * @author double
+ * @Date 2026/10/17 23:35
+ */
+@Slf4j
+public class GrayRoutingConfigRefresher implements Supplier<GrayRoutingConfig>,
+        ApplicationListener<EnvironmentChangeEvent> {
+
+    public static final String PREFIX = "spring.cloud.loadbalancer.gray";
+
+    private final Environment environment;
+
+    private final String localZone;
+
+    private final GrayLaneRegistry laneRegistry;
+
+    private final GrayServiceInstanceRefresher instanceRefresher;
+
+    private volatile GrayRoutingConfig config;
+
+    /**
+     * @param properties        启动时绑定的灰度负载均衡配置
+     * @param environment       配置刷新后从中重新绑定
+     * @param localZone         spring.cloud.loadbalancer.zone，没有时为null
+     * @param laneRegistry      泳道注册表，降级关系变化时更新
+     * @param instanceRefresher 可用区偏好变化时刷新各服务缓存的分区快照
+     */
+    public GrayRoutingConfigRefresher(GrayLoadBalancerProperties properties, Environment environment,
+                                      String localZone, GrayLaneRegistry laneRegistry,
+                                      GrayServiceInstanceRefresher instanceRefresher) {
+        this.environment = environment;
+        this.localZone = localZone;
+        this.laneRegistry = laneRegistry;
+        this.instanceRefresher = instanceRefresher;
+        this.config = GrayRoutingConfig.of(properties, localZone);
+    }
+
+    /**
+     * @return 当前的路由配置快照
+     */
+    @Override
+    public GrayRoutingConfig get() {
+        return config;
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        for (String key : event.getKeys()) {
+            if (key.startsWith(PREFIX)) {
+                refresh();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 从Environment重新绑定配置并发布新的快照
+     */
+    public synchronized void refresh() {
+        GrayLoadBalancerProperties properties = Binder.get(environment)
+                .bindOrCreate(PREFIX, GrayLoadBalancerProperties.class);
+        GrayRoutingConfig previous = this.config;
+        GrayRoutingConfig updated = previous.update(properties, localZone);
+        if (updated == previous) {
+            return;
+        }
+        if (updated.getFallbacks() != previous.getFallbacks()) {
+            updateFallbacks(previous.getFallbacks(), updated.getFallbacks());
+        }
+        if (updated.getDeclaredLanes() != previous.getDeclaredLanes()) {
+            updateLanes(previous.getDeclaredLanes(), updated.getDeclaredLanes());
+        }
+        this.config = updated;
+        boolean zoneChanged = updated.getZonePreference() != previous.getZonePreference();
+        if (zoneChanged) {
+            // 只有可用区偏好变化才需要重新分区，服务的权重、策略等变化不影响分区快照
+            instanceRefresher.refreshAll();
+        }
+        if (log.isInfoEnabled()) {
+            Set<String> changed = updated.changedServices(previous);
+            log.info("Gray routing config refreshed, changed services: {}, zone preference changed: {}",
+                    changed, zoneChanged);
+        }
+    }
+
+    /**
+     * 新声明的泳道立即驻留；不再声明的泳道在没有实例引用后淘汰，仍有实例时保持隔离在原泳道，不会并入基线
+     */
+    private void updateLanes(Set<String> previous, Set<String> updated) {
+        updated.forEach(laneRegistry::declare);
+        previous.forEach(name -> {
+            if (!updated.contains(name)) {
+                laneRegistry.undeclare(name);
+            }
+        });
+    }
+
+    private void updateFallbacks(Map<String, String> previous, Map<String, String> updated) {
+        previous.keySet().forEach(name -> {
+            if (!updated.containsKey(name)) {
+                laneRegistry.removeFallback(name);
+            }
+        });
+        updated.forEach((name, fallback) -> {
+            if (!fallback.equals(previous.get(name))) {
+                laneRegistry.setFallback(name, fallback);
+            }
+        });
+    }
+}
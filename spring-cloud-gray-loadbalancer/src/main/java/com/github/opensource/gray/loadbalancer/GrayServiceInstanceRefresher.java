@@ -0,0 +1,37 @@
+package com.github.opensource.gray.loadbalancer;
+
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * 服务发现发布HeartbeatEvent（例如Nacos、Eureka拉取到实例变化）时刷新各服务缓存的分区快照。
+ * <p>
+ * 事件发布在应用容器中，不会传递到各服务的负载均衡子容器，因此由父容器中的该bean监听，
+ * 子容器创建的{@link GrayCachingServiceInstanceListSupplier}登记到这里。
+ *
+ * @author double
+ * @Date 2026/10/17 22:45
+ */
+public class GrayServiceInstanceRefresher implements ApplicationListener<HeartbeatEvent> {
+
+    private final Set<GrayCachingServiceInstanceListSupplier> suppliers = new CopyOnWriteArraySet<>();
+
+    public void register(GrayCachingServiceInstanceListSupplier supplier) {
+        suppliers.add(supplier);
+    }
+
+    @Override
+    public void onApplicationEvent(HeartbeatEvent event) {
+        refreshAll();
+    }
+
+    /**
+     * 在后台刷新所有服务缓存的分区快照
+     */
+    public void refreshAll() {
+        suppliers.forEach(GrayCachingServiceInstanceListSupplier::refresh);
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.opensource.gray.loadbalancer;
+
+import java.util.Objects;
+
+/**
+ * 单个服务的灰度路由配置快照，由{@link GrayLoadBalancerProperties.Service}绑定而来，创建后不再变化。
+ * <p>
+ * 灰度流量权重的调度表在创建快照时构造好，请求路径上不再比较权重是否变化；
+ * 配置刷新时该服务的配置没有变化则沿用同一个快照对象。
+ *
+ * @author double
+ * @Date 2026/10/17 23:20
+ */
+public final class GrayServiceRouting {
+
+    /**
+     * 未配置的服务：不按权重分流，泳道内轮询
+     */
+    public static final GrayServiceRouting DEFAULT = new GrayServiceRouting(0.0, null,
+            GrayLoadBalancerProperties.Strategy.ROUND_ROBIN, null, false);
+
+    private final double weight;
+
+    private final GrayTrafficWeight trafficWeight;
+
+    private final String stickyHeader;
+
+    private final GrayLoadBalancerProperties.Strategy strategy;
+
+    private final String hashHeader;
+
+    private final boolean retryFallback;
+
+    private GrayServiceRouting(double weight, String stickyHeader, GrayLoadBalancerProperties.Strategy strategy,
+                               String hashHeader, boolean retryFallback) {
+        this.weight = weight;
+        this.trafficWeight = GrayTrafficWeight.of(weight);
+        this.stickyHeader = stickyHeader;
+        this.strategy = strategy == null ? GrayLoadBalancerProperties.Strategy.ROUND_ROBIN : strategy;
+        this.hashHeader = hashHeader;
+        this.retryFallback = retryFallback;
+    }
+
+    /**
+     * @param service 服务的灰度路由配置
+     * @return 配置为null时返回{@link #DEFAULT}
+     */
+    public static GrayServiceRouting of(GrayLoadBalancerProperties.Service service) {
+        if (service == null) {
+            return DEFAULT;
+        }
+        return new GrayServiceRouting(service.getWeight(), service.getStickyHeader(), service.getStrategy(),
+                service.getHashHeader(), service.isRetryFallback());
+    }
+
+    /**
+     * 判断配置是否仍对应本快照，不创建新对象
+     *
+     * @param service 服务的灰度路由配置
+     * @return 是否相同
+     */
+    public boolean matches(GrayLoadBalancerProperties.Service service) {
+        if (service == null) {
+            return this == DEFAULT;
+        }
+        GrayLoadBalancerProperties.Strategy configured = service.getStrategy() == null
+                ? GrayLoadBalancerProperties.Strategy.ROUND_ROBIN : service.getStrategy();
+        return Double.compare(weight, service.getWeight()) == 0
+                && Objects.equals(stickyHeader, service.getStickyHeader())
+                && strategy == configured
+                && Objects.equals(hashHeader, service.getHashHeader())
+                && retryFallback == service.isRetryFallback();
+    }
+
+    /**
+     * @return 未携带灰度标记的请求中路由到灰度实例的流量百分比
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return 按权重构造好的调度表
+     */
+    public GrayTrafficWeight getTrafficWeight() {
+        return trafficWeight;
+    }
+
+    public String getStickyHeader() {
+        return stickyHeader;
+    }
+
+    public GrayLoadBalancerProperties.Strategy getStrategy() {
+        return strategy;
+    }
+
+    public String getHashHeader() {
+        return hashHeader;
+    }
+
+    public boolean isRetryFallback() {
+        return retryFallback;
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayHash;
+
+/**
+ * 灰度流量权重。
+ * <p>
+ * 权重以万分比计，构造时按平滑加权轮询(Smooth Weighted Round-Robin)预先计算一个约分后的调度表，
+ * 例如5%对应长度为20、只有一个灰度槽位且均匀分布的调度表。请求路径上只按计数器取调度表中的槽位，
+ * 无锁且不分配内存；只有权重变化时才重新构造。
+ * <p>
+ * 粘性路由按请求键的哈希落入[0, 10000)的桶，桶号小于灰度权重的请求走灰度，同一个键的结果是确定的。
+ *
+ * @author double
+ * @Date 2026/10/17 14:36
+ */
+public final class GrayTrafficWeight {
+
+    private static final int TOTAL = GrayHash.BUCKETS;
+
+    /**
+     * 不分配灰度流量
+     */
+    public static final GrayTrafficWeight NONE = new GrayTrafficWeight(0, 0, new boolean[]{false});
+
+    /**
+     * 配置的百分比，用于判断配置是否变化
+     */
+    private final double percent;
+
+    /**
+     * 灰度流量的万分比
+     */
+    private final int grayBasisPoints;
+
+    /**
+     * 调度表，true表示该槽位走灰度
+     */
+    private final boolean[] schedule;
+
+    private GrayTrafficWeight(double percent, int grayBasisPoints, boolean[] schedule) {
+        this.percent = percent;
+        this.grayBasisPoints = grayBasisPoints;
+        this.schedule = schedule;
+    }
+
+    /**
+     * 根据百分比构造权重
+     *
+     * @param percent 灰度流量百分比，取值0~100，超出范围时取边界值
+     * @return 灰度流量权重
+     */
+    public static GrayTrafficWeight of(double percent) {
+        int gray = (int) Math.round(Math.min(Math.max(percent, 0D), 100D) * 100);
+        if (gray == 0) {
+            return NONE;
+        }
+        int divisor = gcd(gray, TOTAL);
+        int grayWeight = gray / divisor;
+        int baseWeight = (TOTAL - gray) / divisor;
+        int total = grayWeight + baseWeight;
+        boolean[] schedule = new boolean[total];
+        // 平滑加权轮询：每轮双方加上各自权重，当前值较大者被选中并减去总权重
+        int grayCurrent = 0;
+        int baseCurrent = 0;
+        for (int i = 0; i < total; i++) {
+            grayCurrent += grayWeight;
+            baseCurrent += baseWeight;
+            if (grayCurrent > baseCurrent) {
+                schedule[i] = true;
+                grayCurrent -= total;
+            } else {
+                baseCurrent -= total;
+            }
+        }
+        return new GrayTrafficWeight(percent, gray, schedule);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * 按调度表判断本次请求是否走灰度
+     *
+     * @param tick 单调递增的计数
+     * @return true表示走灰度
+     */
+    public boolean isGray(long tick) {
+        return schedule[(int) ((tick & Long.MAX_VALUE) % schedule.length)];
+    }
+
+    /**
+     * 按粘性键判断请求是否走灰度，相同的键总是返回相同的结果
+     *
+     * @param stickyKey 粘性键，例如用户ID
+     * @return true表示走灰度
+     */
+    public boolean isGray(String stickyKey) {
+        return isGrayByHash(GrayHash.hash(stickyKey));
+    }
+
+    /**
+     * 按粘性哈希判断请求是否走灰度，网关已经计算好哈希时使用
+     *
+     * @param stickyHash {@link GrayHash#hash(String)}的结果
+     * @return true表示走灰度
+     */
+    public boolean isGrayByHash(int stickyHash) {
+        return GrayHash.bucket(stickyHash) < grayBasisPoints;
+    }
+
+    /**
+     * @return 是否分配了灰度流量
+     */
+    public boolean isEnabled() {
+        return grayBasisPoints > 0;
+    }
+
+    /**
+     * @return 配置的百分比
+     */
+    public double getPercent() {
+        return percent;
+    }
+}
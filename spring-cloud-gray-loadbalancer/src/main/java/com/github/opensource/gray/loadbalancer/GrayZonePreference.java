@@ -0,0 +1,106 @@
+package com.github.opensource.gray.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * 泳道内的可用区偏好，在灰度/基线泳道划分之上叠加同可用区优先。
+ * <p>
+ * 路由顺序为：同可用区的目标泳道 → 任意可用区的目标泳道 → 同可用区的降级泳道 → 任意可用区的降级泳道。
+ * 泳道内同可用区的实例少于{@code minInstances}，或者占泳道的比例低于{@code minRatio}时，
+ * 认为本地泳道过小，溢出到该泳道的全部实例，避免少数本地实例承担整个泳道的流量。
+ * 候选数组在分区快照生成时计算好，请求路径上只是按泳道ID取数组。
+ *
+ * @author double
+ * @Date 2026/10/17 19:55
+ */
+public final class GrayZonePreference {
+
+    /**
+     * 不区分可用区
+     */
+    public static final GrayZonePreference NONE = new GrayZonePreference(null, 1, 0.0);
+
+    private final String zone;
+
+    private final int minInstances;
+
+    private final double minRatio;
+
+    private GrayZonePreference(String zone, int minInstances, double minRatio) {
+        this.zone = zone;
+        this.minInstances = Math.max(minInstances, 1);
+        this.minRatio = minRatio;
+    }
+
+    /**
+     * @param properties 可用区偏好配置
+     * @param localZone  spring.cloud.loadbalancer.zone，配置中没有指定可用区时使用
+     * @return 未开启或者不知道本地可用区时返回{@link #NONE}
+     */
+    public static GrayZonePreference of(GrayLoadBalancerProperties.Zone properties, String localZone) {
+        if (properties == null || !properties.isEnabled()) {
+            return NONE;
+        }
+        String zone = properties.getZone() != null ? properties.getZone() : localZone;
+        if (zone == null || zone.isEmpty()) {
+            return NONE;
+        }
+        return new GrayZonePreference(zone.intern(), properties.getMinInstances(), properties.getMinRatio());
+    }
+
+    /**
+     * @return 是否按可用区选择
+     */
+    public boolean isEnabled() {
+        return zone != null;
+    }
+
+    /**
+     * @return 本地可用区，未开启时为null
+     */
+    public String getZone() {
+        return zone;
+    }
+
+    /**
+     * @param instanceZone 实例描述中的可用区
+     * @return 是否与本地可用区相同
+     */
+    public boolean isLocal(String instanceZone) {
+        return zone != null && zone.equals(instanceZone);
+    }
+
+    /**
+     * 在泳道的同可用区实例和全部实例之间选择候选数组
+     *
+     * @param local 泳道内同可用区的实例
+     * @param lane  泳道的全部实例
+     * @return 本地实例满足溢出阈值时返回local，否则返回lane
+     */
+    public ServiceInstance[] select(ServiceInstance[] local, ServiceInstance[] lane) {
+        if (local.length == 0 || local.length == lane.length
+                || local.length < minInstances || local.length < minRatio * lane.length) {
+            return lane;
+        }
+        return local;
+    }
+
+    /**
+     * 判断配置是否仍对应本偏好，不创建新对象，配置没有变化时分区快照可以复用
+     *
+     * @param properties 可用区偏好配置
+     * @param localZone  spring.cloud.loadbalancer.zone
+     * @return 是否相同
+     */
+    public boolean matches(GrayLoadBalancerProperties.Zone properties, String localZone) {
+        if (properties == null || !properties.isEnabled()) {
+            return zone == null;
+        }
+        String configured = properties.getZone() != null ? properties.getZone() : localZone;
+        if (configured == null || configured.isEmpty()) {
+            return zone == null;
+        }
+        return configured.equals(zone) && Math.max(properties.getMinInstances(), 1) == minInstances
+                && Double.compare(properties.getMinRatio(), minRatio) == 0;
+    }
+}
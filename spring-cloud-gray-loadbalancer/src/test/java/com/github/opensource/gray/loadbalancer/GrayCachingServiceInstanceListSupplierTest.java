@@ -0,0 +1,193 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 灰度分区快照缓存：首次加载、TTL到期后台刷新、刷新失败淘汰快照、HeartbeatEvent刷新、
+ * 泳道变化后重新分区以及负载均衡器直接在快照上同步选择
+ *
+ * @author double
+ * @Date 2026/10/18 09:30
+ */
+class GrayCachingServiceInstanceListSupplierTest {
+
+    private static final String SERVICE_ID = "order-service";
+
+    private static final String LANE = "v3-cache";
+
+    private final StubSupplier delegate = new StubSupplier();
+
+    @AfterEach
+    void undeclare() {
+        GrayLaneRegistry.getInstance().undeclare(LANE);
+    }
+
+    @Test
+    void coldLoadThenServesFromSnapshot() {
+        List<ServiceInstance> instances = List.of(instance("order-1", null), instance("order-2", "gray"));
+        delegate.instances = instances;
+        GrayCachingServiceInstanceListSupplier supplier = supplier(Duration.ofHours(1));
+
+        assertThat(supplier.getPartition()).isNull();
+        assertThat(supplier.get().blockFirst()).isSameAs(instances);
+        assertThat(delegate.calls).hasValue(1);
+
+        GrayInstancePartition partition = supplier.getPartition();
+        assertThat(partition.getInstances()).isSameAs(instances);
+        assertThat(partition.getGray()).extracting(ServiceInstance::getInstanceId).containsExactly("order-2");
+        assertThat(supplier.get().blockFirst()).isSameAs(instances);
+        assertThat(delegate.calls).hasValue(1);
+    }
+
+    @Test
+    void expiredSnapshotIsServedWhileRefreshing() {
+        List<ServiceInstance> initial = List.of(instance("order-1", null));
+        delegate.instances = initial;
+        GrayCachingServiceInstanceListSupplier supplier = supplier(Duration.ofNanos(1));
+        supplier.get().blockFirst();
+        GrayInstancePartition old = supplier.getPartition();
+
+        Sinks.One<List<ServiceInstance>> pending = Sinks.one();
+        delegate.next = pending.asMono();
+        assertThat(supplier.getPartition()).isSameAs(old);
+        assertThat(supplier.getPartition()).isSameAs(old);
+        // 刷新进行中时不重复订阅服务发现
+        int calls = delegate.calls.get();
+        assertThat(supplier.getPartition()).isSameAs(old);
+        assertThat(delegate.calls).hasValue(calls);
+
+        List<ServiceInstance> refreshed = List.of(instance("order-1", null), instance("order-2", null));
+        pending.tryEmitValue(refreshed);
+        assertThat(supplier.getPartition().getInstances()).isSameAs(refreshed);
+    }
+
+    @Test
+    void failedRefreshEvictsSnapshot() {
+        delegate.instances = List.of(instance("order-1", null));
+        GrayCachingServiceInstanceListSupplier supplier = supplier(Duration.ofHours(1));
+        supplier.get().blockFirst();
+        assertThat(supplier.getPartition()).isNotNull();
+
+        delegate.next = Mono.error(new IllegalStateException("registry unavailable"));
+        supplier.refresh();
+        assertThat(supplier.getPartition()).isNull();
+
+        delegate.next = null;
+        List<ServiceInstance> recovered = List.of(instance("order-2", null));
+        delegate.instances = recovered;
+        assertThat(supplier.get().blockFirst()).isSameAs(recovered);
+        assertThat(supplier.getPartition().getInstances()).isSameAs(recovered);
+    }
+
+    @Test
+    void heartbeatRefreshesSnapshot() {
+        delegate.instances = List.of(instance("order-1", null));
+        GrayCachingServiceInstanceListSupplier supplier = supplier(Duration.ofHours(1));
+        GrayServiceInstanceRefresher refresher = new GrayServiceInstanceRefresher();
+        refresher.register(supplier);
+        supplier.get().blockFirst();
+
+        List<ServiceInstance> changed = List.of(instance("order-1", null), instance("order-3", "gray"));
+        delegate.instances = changed;
+        refresher.onApplicationEvent(new HeartbeatEvent(this, 1L));
+
+        assertThat(supplier.getPartition().getInstances()).isSameAs(changed);
+        assertThat(supplier.getPartition().hasGray()).isTrue();
+    }
+
+    @Test
+    void laneChangeRepartitions() {
+        delegate.instances = List.of(instance("order-1", null), instance("order-2", LANE));
+        GrayCachingServiceInstanceListSupplier supplier = supplier(Duration.ofHours(1));
+        supplier.get().blockFirst();
+        // 未声明的version属于基线
+        assertThat(supplier.getPartition().getBase()).hasSize(2);
+
+        GrayLane lane = GrayLaneRegistry.getInstance().declare(LANE);
+        GrayInstancePartition stale = supplier.getPartition();
+        assertThat(stale.isStale(GrayLaneRegistry.getInstance())).isTrue();
+
+        GrayInstancePartition repartitioned = supplier.getPartition();
+        assertThat(repartitioned).isNotSameAs(stale);
+        assertThat(repartitioned.isStale(GrayLaneRegistry.getInstance())).isFalse();
+        assertThat(repartitioned.getBase()).extracting(ServiceInstance::getInstanceId).containsExactly("order-1");
+        assertThat(repartitioned.getLane(lane.getId())).extracting(ServiceInstance::getInstanceId)
+                .containsExactly("order-2");
+    }
+
+    @Test
+    void loadBalancerChoosesFromSnapshotWithoutSubscribing() {
+        delegate.instances = List.of(instance("order-1", null), instance("order-2", null));
+        GrayCachingServiceInstanceListSupplier supplier = supplier(Duration.ofHours(1));
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(
+                Map.of("serviceInstanceListSupplier", supplier));
+        GrayRoundRobinLoadBalancer loadBalancer = new GrayRoundRobinLoadBalancer(
+                beanFactory.getBeanProvider(ServiceInstanceListSupplier.class), SERVICE_ID, 0);
+
+        assertThat(loadBalancer.choose(new DefaultRequest<>()).block().hasServer()).isTrue();
+        assertThat(delegate.calls).hasValue(1);
+        for (int i = 0; i < 10; i++) {
+            Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>()).block();
+            assertThat(response.hasServer()).isTrue();
+        }
+        assertThat(delegate.calls).hasValue(1);
+    }
+
+    private GrayCachingServiceInstanceListSupplier supplier(Duration ttl) {
+        return new GrayCachingServiceInstanceListSupplier(delegate, ttl);
+    }
+
+    private static ServiceInstance instance(String instanceId, String version) {
+        Map<String, String> metadata = new HashMap<>();
+        if (version != null) {
+            metadata.put(GrayConstant.HEADER_VERSION_GRAY, version);
+        }
+        return new DefaultServiceInstance(instanceId, SERVICE_ID, instanceId, 8080, false, metadata);
+    }
+
+    /**
+     * 内存中的服务发现：返回当前的实例列表，或者指定的下一次结果（例如尚未返回、失败）
+     */
+    private static final class StubSupplier implements ServiceInstanceListSupplier {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private volatile List<ServiceInstance> instances = List.of();
+
+        private volatile Mono<List<ServiceInstance>> next;
+
+        @Override
+        public String getServiceId() {
+            return SERVICE_ID;
+        }
+
+        @Override
+        public Flux<List<ServiceInstance>> get() {
+            calls.incrementAndGet();
+            Mono<List<ServiceInstance>> result = next;
+            return (result != null ? result : Mono.fromSupplier(() -> instances)).flux();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 一致性哈希环：相同实例列表重建后键的映射不变，增减一个实例时只有约1/n的键重新映射
+ *
+ * @author double
+ * @Date 2026/10/18 09:40
+ */
+class GrayHashRingTest {
+
+    private static final int INSTANCES = 10;
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void identicalListMapsKeysIdentically() {
+        GrayHashRing ring = GrayHashRing.of(instances(INSTANCES), null);
+        GrayHashRing rebuilt = GrayHashRing.of(instances(INSTANCES), null);
+        // 复用上一个环的虚拟节点哈希与重新计算的结果相同
+        ServiceInstance[] copy = instances(INSTANCES);
+        GrayHashRing reused = GrayHashRing.of(copy, ring);
+
+        assertThat(reused.isBuiltFrom(copy)).isTrue();
+        assertThat(owners(rebuilt)).isEqualTo(owners(ring));
+        assertThat(owners(reused)).isEqualTo(owners(ring));
+    }
+
+    @Test
+    void addingInstanceRemapsOnlyItsShare() {
+        GrayHashRing ring = GrayHashRing.of(instances(INSTANCES), null);
+        GrayHashRing grown = GrayHashRing.of(instances(INSTANCES + 1), ring);
+
+        String[] before = owners(ring);
+        String[] after = owners(grown);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (!before[i].equals(after[i])) {
+                // 只会移到新实例上
+                assertThat(after[i]).isEqualTo(instanceId(INSTANCES));
+                moved++;
+            }
+        }
+        assertAboutShare(moved, INSTANCES + 1);
+    }
+
+    @Test
+    void removingInstanceRemapsOnlyItsKeys() {
+        GrayHashRing ring = GrayHashRing.of(instances(INSTANCES), null);
+        ServiceInstance[] remaining = Arrays.copyOf(instances(INSTANCES), INSTANCES - 1);
+        GrayHashRing shrunk = GrayHashRing.of(remaining, ring);
+
+        String[] before = owners(ring);
+        String[] after = owners(shrunk);
+        String removed = instanceId(INSTANCES - 1);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (before[i].equals(removed)) {
+                moved++;
+            } else {
+                assertThat(after[i]).isEqualTo(before[i]);
+            }
+            assertThat(after[i]).isNotEqualTo(removed);
+        }
+        assertAboutShare(moved, INSTANCES);
+    }
+
+    /**
+     * 重新映射的键数在期望值KEYS/n的一半到一倍半之间，160个虚拟节点时单个实例份额的偏差远小于此
+     */
+    private static void assertAboutShare(int moved, int instances) {
+        int expected = KEYS / instances;
+        assertThat(moved).isBetween(expected / 2, expected * 3 / 2);
+    }
+
+    private static String[] owners(GrayHashRing ring) {
+        String[] owners = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            owners[i] = ring.get(GrayHash.hash("user-" + i)).getInstanceId();
+        }
+        return owners;
+    }
+
+    private static ServiceInstance[] instances(int count) {
+        ServiceInstance[] instances = new ServiceInstance[count];
+        for (int i = 0; i < count; i++) {
+            String instanceId = instanceId(i);
+            instances[i] = new DefaultServiceInstance(instanceId, "order-service", "10.0.0." + i, 8080, false,
+                    Map.of());
+        }
+        return instances;
+    }
+
+    private static String instanceId(int index) {
+        return "order-" + index;
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayLaneRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import reactor.util.context.Context;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 灰度负载均衡器的泳道选择：发布版本号不会把实例从基线中拆出去，未携带灰度标记的请求不会落到声明的泳道上
+ *
+ * @author double
+ * @Date 2026/10/17 23:58
+ */
+class GrayRoundRobinLoadBalancerTest {
+
+    private static final String SERVICE_ID = "user-service";
+
+    @AfterEach
+    void undeclare() {
+        GrayLaneRegistry.getInstance().undeclare("v2-alpha");
+    }
+
+    @Test
+    void releaseVersionStaysInBase() {
+        GrayRoundRobinLoadBalancer loadBalancer = loadBalancer(
+                instance("user-1", "1.0.0"),
+                instance("user-2", "1.0.1"),
+                instance("user-3", null));
+
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            Response<ServiceInstance> response = choose(loadBalancer, null);
+            assertThat(response.hasServer()).isTrue();
+            chosen.add(response.getServer().getInstanceId());
+        }
+        assertThat(chosen).containsExactlyInAnyOrder("user-1", "user-2", "user-3");
+    }
+
+    @Test
+    void declaredLaneReceivesOnlyTaggedRequests() {
+        GrayLaneRegistry.getInstance().declare("v2-alpha");
+        GrayRoundRobinLoadBalancer loadBalancer = loadBalancer(
+                instance("user-1", "1.0.0"),
+                instance("user-2", null),
+                instance("user-canary", "v2-alpha"));
+
+        for (int i = 0; i < 30; i++) {
+            assertThat(choose(loadBalancer, null).getServer().getInstanceId()).isNotEqualTo("user-canary");
+            assertThat(choose(loadBalancer, "v2-alpha").getServer().getInstanceId()).isEqualTo("user-canary");
+        }
+    }
+
+    @Test
+    void untaggedRequestUsesAllInstancesWhenBaseIsEmpty() {
+        GrayRoundRobinLoadBalancer loadBalancer = loadBalancer(
+                instance("user-1", "gray"),
+                instance("user-2", "gray"));
+
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Response<ServiceInstance> response = choose(loadBalancer, null);
+            assertThat(response.hasServer()).isTrue();
+            chosen.add(response.getServer().getInstanceId());
+        }
+        assertThat(chosen).containsExactlyInAnyOrder("user-1", "user-2");
+    }
+
+    private static GrayRoundRobinLoadBalancer loadBalancer(ServiceInstance... instances) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(
+                Map.of("serviceInstanceListSupplier", ServiceInstanceListSuppliers.from(SERVICE_ID, instances)));
+        return new GrayRoundRobinLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                SERVICE_ID, 0);
+    }
+
+    private static Response<ServiceInstance> choose(GrayRoundRobinLoadBalancer loadBalancer, String tag) {
+        Context context = tag == null ? Context.empty() : Context.of(GrayConstant.GRAY_TAG_ATTRIBUTE, tag);
+        return loadBalancer.choose(new DefaultRequest<>()).contextWrite(context).block();
+    }
+
+    private static ServiceInstance instance(String instanceId, String version) {
+        Map<String, String> metadata = new HashMap<>();
+        if (version != null) {
+            metadata.put(GrayConstant.HEADER_VERSION_GRAY, version);
+        }
+        return new DefaultServiceInstance(instanceId, SERVICE_ID, instanceId, 8080, false, metadata);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.opensource.gray.loadbalancer;
+
+import com.github.opensource.gray.GrayHash;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 灰度流量权重：平滑加权轮询调度表的精确比例与均匀分布、按最大公约数约分后的周期，以及粘性键的确定性
+ *
+ * @author double
+ * @Date 2026/10/18 09:50
+ */
+class GrayTrafficWeightTest {
+
+    @Test
+    void scheduleHasExactShareEveryHundredTicks() {
+        assertThat(grayCount(GrayTrafficWeight.of(1), 0, 100)).isEqualTo(1);
+        assertThat(grayCount(GrayTrafficWeight.of(5), 0, 100)).isEqualTo(5);
+        assertThat(grayCount(GrayTrafficWeight.of(33), 0, 100)).isEqualTo(33);
+        assertThat(grayCount(GrayTrafficWeight.of(100), 0, 100)).isEqualTo(100);
+        // 任意起点的连续100次都是精确比例
+        assertThat(grayCount(GrayTrafficWeight.of(33), 1_234_567, 100)).isEqualTo(33);
+        assertThat(grayCount(GrayTrafficWeight.of(0), 0, 100)).isZero();
+    }
+
+    @Test
+    void scheduleIsReducedByGreatestCommonDivisor() {
+        // 500:9500约分为1:19，12.5%约分为1:7，周期分别为20和8
+        assertPeriod(GrayTrafficWeight.of(5), 20, 1);
+        assertPeriod(GrayTrafficWeight.of(12.5), 8, 1);
+        assertPeriod(GrayTrafficWeight.of(33), 100, 33);
+        assertPeriod(GrayTrafficWeight.of(100), 1, 1);
+        // 万分之一无法约分
+        assertPeriod(GrayTrafficWeight.of(0.01), 10_000, 1);
+    }
+
+    @Test
+    void scheduleSpreadsGrayEvenly() {
+        // 33%的灰度槽位间隔为3或4，不会连续出现，也不会集中在调度表的一端
+        GrayTrafficWeight weight = GrayTrafficWeight.of(33);
+        int last = -1;
+        for (int tick = 0; tick < 200; tick++) {
+            if (weight.isGray(tick)) {
+                if (last >= 0) {
+                    assertThat(tick - last).isBetween(3, 4);
+                }
+                last = tick;
+            }
+        }
+        assertThat(grayCount(weight, 0, 10)).isBetween(3, 4);
+    }
+
+    @Test
+    void outOfRangeIsClamped() {
+        assertThat(GrayTrafficWeight.of(-5)).isSameAs(GrayTrafficWeight.NONE);
+        assertThat(GrayTrafficWeight.of(150).isGray(7)).isTrue();
+        assertThat(GrayTrafficWeight.of(150).isGray("user-1")).isTrue();
+        assertThat(GrayTrafficWeight.NONE.isEnabled()).isFalse();
+        assertThat(GrayTrafficWeight.NONE.isGray("user-1")).isFalse();
+    }
+
+    @Test
+    void stickyKeyIsDeterministic() {
+        GrayTrafficWeight weight = GrayTrafficWeight.of(33);
+        GrayTrafficWeight same = GrayTrafficWeight.of(33);
+        GrayTrafficWeight larger = GrayTrafficWeight.of(50);
+        int gray = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "user-" + i;
+            boolean result = weight.isGray(key);
+            assertThat(weight.isGray(key)).isEqualTo(result);
+            assertThat(same.isGray(key)).isEqualTo(result);
+            assertThat(weight.isGrayByHash(GrayHash.hash(key))).isEqualTo(result);
+            // 调大灰度比例时已经走灰度的键不会回到基线
+            if (result) {
+                assertThat(larger.isGray(key)).isTrue();
+                gray++;
+            }
+        }
+        assertThat(gray).isBetween(3_000, 3_600);
+    }
+
+    private static void assertPeriod(GrayTrafficWeight weight, int period, int grayPerPeriod) {
+        assertThat(grayCount(weight, 0, period)).isEqualTo(grayPerPeriod);
+        for (int tick = 0; tick < period * 3; tick++) {
+            assertThat(weight.isGray(tick + period)).isEqualTo(weight.isGray(tick));
+        }
+    }
+
+    private static int grayCount(GrayTrafficWeight weight, long from, int ticks) {
+        int count = 0;
+        for (long tick = from; tick < from + ticks; tick++) {
+            if (weight.isGray(tick)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -1,6 +1,9 @@
 package com.github.opensource.gray.feign;
 
+import com.github.opensource.gray.GrayRequestMetrics;
 import feign.RequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -22,11 +25,12 @@ public class GrayFeignInterceptorAutoConfiguration {
      * 这个方法的作用是创建并返回一个GrayFeignRequestInterceptor实例，作为Feign客户端的请求拦截器。
      * 通过这个拦截器，可以在Feign客户端发送请求之前，添加一些特定的请求头或者进行其他必要的处理。
      *
+     * @param meterRegistry 指标注册表，不存在时不记录指标
      * @return GrayFeignRequestInterceptor 实例，用于Feign请求的拦截。
      */
     @Bean
     @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true", matchIfMissing = true)
-    public GrayFeignRequestInterceptor feignRequestInterceptor() {
-        return new GrayFeignRequestInterceptor();
+    public GrayFeignRequestInterceptor feignRequestInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GrayFeignRequestInterceptor(GrayRequestMetrics.of(meterRegistry.getIfAvailable(), "feign"));
     }
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.github.opensource.gray.feign;
 
 import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayLaneRegistry;
 import com.github.opensource.gray.GrayRequestContextHolder;
+import com.github.opensource.gray.GrayRequestMetrics;
+import com.github.opensource.gray.GrayRoutingContext;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import org.apache.commons.lang3.StringUtils;
 
 
 /**
@@ -13,11 +17,33 @@ import feign.RequestTemplate;
  */
 public class GrayFeignRequestInterceptor implements RequestInterceptor {
 
+    /**
+     * 按泳道的下游调用计数
+     */
+    private final GrayRequestMetrics grayRequestMetrics;
+
+    public GrayFeignRequestInterceptor() {
+        this(GrayRequestMetrics.NOOP);
+    }
+
+    public GrayFeignRequestInterceptor(GrayRequestMetrics grayRequestMetrics) {
+        this.grayRequestMetrics = grayRequestMetrics;
+    }
+
     @Override
     public void apply(RequestTemplate template) {
-        // 如果版本灰度标记为gray，将灰度标记通过HttpHeader传递下去
-        if (GrayConstant.HEADER_VERSION_FLAG_GRAY.equals(GrayRequestContextHolder.getGrayTag())) {
-            template.header(GrayConstant.HEADER_VERSION_GRAY, GrayConstant.HEADER_VERSION_FLAG_GRAY);
+        // 如果版本灰度标记为gray或者v2-alpha等非基线泳道，将灰度标记通过HttpHeader传递下去
+        // 请求内的所有出站调用共享入站请求的路由上下文，灰度决策只解析一次
+        GrayRoutingContext routingContext = GrayRequestContextHolder.getRoutingContext();
+        if (routingContext == null) {
+            // 没有灰度标记，按基线计数
+            grayRequestMetrics.record(GrayLaneRegistry.getInstance().base());
+            return;
+        }
+        grayRequestMetrics.record(routingContext.getDecision().getLane());
+        String grayTag = routingContext.getGrayTag();
+        if (StringUtils.isNotBlank(grayTag) && !GrayConstant.HEADER_VERSION_FLAG_BASE.equals(grayTag)) {
+            template.header(GrayConstant.HEADER_VERSION_GRAY, grayTag);
         }
     }
 }
@@ -0,0 +1,48 @@
+package com.github.opensource.gray.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一组请求耗时的百分位
+ *
+ * @author double
+ * @Date 2026/10/17 21:10
+ */
+final class GrayLatency {
+
+    private final long[] sorted;
+
+    private GrayLatency(long[] sorted) {
+        this.sorted = sorted;
+    }
+
+    static GrayLatency of(List<GrayLoadDriver.Result> results) {
+        long[] latencies = new long[results.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = results.get(i).latencyNanos;
+        }
+        Arrays.sort(latencies);
+        return new GrayLatency(latencies);
+    }
+
+    /**
+     * @param percentile 百分位，取值0~1
+     * @return 耗时，纳秒
+     */
+    long percentile(double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+    }
+
+    long p50() {
+        return percentile(0.50);
+    }
+
+    long p99() {
+        return percentile(0.99);
+    }
+}
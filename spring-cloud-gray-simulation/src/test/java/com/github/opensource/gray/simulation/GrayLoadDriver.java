@@ -0,0 +1,121 @@
+package com.github.opensource.gray.simulation;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 以固定的并发数发送请求，记录每个请求的灰度标记、处理的实例、实例收到的version请求头以及耗时
+ *
+ * @author double
+ * @Date 2026/10/17 21:10
+ */
+final class GrayLoadDriver implements AutoCloseable {
+
+    private final ConnectionProvider connectionProvider;
+
+    private final HttpClient httpClient;
+
+    private final int concurrency;
+
+    GrayLoadDriver(int concurrency) {
+        this.concurrency = concurrency;
+        this.connectionProvider = ConnectionProvider.builder("gray-simulation")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider).responseTimeout(Duration.ofSeconds(10));
+    }
+
+    /**
+     * 发送请求并等待全部完成
+     *
+     * @param requests 请求数
+     * @param target   第i个请求的目标地址和灰度标记
+     * @return 按完成顺序排列的结果
+     */
+    List<Result> run(int requests, IntFunction<Target> target) {
+        return Flux.range(0, requests)
+                .flatMap(i -> send(target.apply(i)), concurrency)
+                .collectList()
+                .block(Duration.ofMinutes(5));
+    }
+
+    private Mono<Result> send(Target target) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return httpClient
+                    .headers(headers -> {
+                        if (target.tag != null) {
+                            headers.set("version", target.tag);
+                        }
+                    })
+                    .get()
+                    .uri(target.url)
+                    .responseSingle((response, body) -> body.asString().defaultIfEmpty("").map(ignored -> new Result(
+                            target.tag,
+                            response.status().code(),
+                            response.responseHeaders().get(GrayStubServer.INSTANCE_HEADER),
+                            response.responseHeaders().get(GrayStubServer.VERSION_HEADER),
+                            System.nanoTime() - start)));
+        });
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * 请求的目标地址和灰度标记
+     */
+    static final class Target {
+
+        private final String url;
+
+        private final String tag;
+
+        Target(String url, String tag) {
+            this.url = url;
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * 一个请求的结果
+     */
+    static final class Result {
+
+        /**
+         * 请求携带的灰度标记，没有时为null
+         */
+        final String tag;
+
+        final int status;
+
+        /**
+         * 处理请求的实例ID
+         */
+        final String instanceId;
+
+        /**
+         * 实例收到的version请求头
+         */
+        final String receivedVersion;
+
+        final long latencyNanos;
+
+        Result(String tag, int status, String instanceId, String receivedVersion, long latencyNanos) {
+            this.tag = tag;
+            this.status = status;
+            this.instanceId = instanceId;
+            this.receivedVersion = receivedVersion;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.opensource.gray.simulation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * 网关 + 灰度负载均衡器 + 进程内桩服务的负载模拟，完全离线运行。
+ * <p>
+ * 每个服务启动基线、gray和v2-alpha三个泳道的桩实例，通过SimpleDiscoveryClient注册。
+ * 在并发负载下验证：
+ * <ul>
+ *     <li>泳道分布：携带灰度标记的请求只落在该泳道，未携带的请求按权重分流，泳道内各实例负载均衡</li>
+ *     <li>灰度标记串用：不同标记的请求在Netty事件循环线程上交错处理，实例收到的version与请求一致</li>
+ *     <li>网关带来的p50/p99延迟：绝对耗时依赖运行环境，只在指定-Dgray.simulation.latency=true时断言</li>
+ * </ul>
+ * 负载参数见{@link GraySimulationSettings}。
+ *
+ * @author double
+ * @Date 2026/10/17 21:10
+ */
+@Slf4j
+@SpringBootTest(classes = GraySimulationApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GrayRoutingSimulationTest {
+
+    private static final String[] TAGS = {"gray", null, "v2-alpha", "base"};
+
+    private static GraySimulationCluster cluster;
+
+    private static GrayLoadDriver driver;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void discovery(DynamicPropertyRegistry registry) {
+        if (cluster == null) {
+            cluster = GraySimulationCluster.start("stub-service", "weighted-service");
+        }
+        cluster.register(registry);
+    }
+
+    @BeforeAll
+    static void setUp() {
+        driver = new GrayLoadDriver(GraySimulationSettings.CONCURRENCY);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        driver.close();
+        cluster.close();
+    }
+
+    @Test
+    void taggedRequestsStayInTheirLaneWithoutLeakage() {
+        warmUp("/stub/echo");
+        List<GrayLoadDriver.Result> results = driver.run(GraySimulationSettings.REQUESTS,
+                i -> new GrayLoadDriver.Target(gateway("/stub/echo"), TAGS[i % TAGS.length]));
+
+        Map<String, Integer> perInstance = new HashMap<>();
+        for (GrayLoadDriver.Result result : results) {
+            assertThat(result.status).isEqualTo(200);
+            String expectedLane = result.tag == null ? "base" : result.tag;
+            // 实例收到的version必须是本请求的标记，而不是同一个事件循环线程上其它请求的标记
+            assertThat(result.receivedVersion).as("version received by %s", result.instanceId).isEqualTo(expectedLane);
+            assertThat(cluster.laneOf(result.instanceId)).as("lane of %s", result.instanceId).isEqualTo(expectedLane);
+            perInstance.merge(result.instanceId, 1, Integer::sum);
+        }
+        assertBalanced("stub-service", perInstance, results.size());
+    }
+
+    @Test
+    void untaggedRequestsAreSplitByWeight() {
+        warmUp("/weighted/echo");
+        List<GrayLoadDriver.Result> results = driver.run(GraySimulationSettings.REQUESTS,
+                i -> new GrayLoadDriver.Target(gateway("/weighted/echo"), null));
+
+        int gray = 0;
+        for (GrayLoadDriver.Result result : results) {
+            assertThat(result.status).isEqualTo(200);
+            String lane = cluster.laneOf(result.instanceId);
+            assertThat(lane).isIn("base", "gray");
+            if ("gray".equals(lane)) {
+                gray++;
+            }
+        }
+        double ratio = (double) gray / results.size();
+        log.info("weighted-service gray ratio: {}", ratio);
+        assertThat(ratio).isCloseTo(0.20, offset(GraySimulationSettings.WEIGHT_TOLERANCE));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "gray.simulation.latency", matches = "true")
+    void gatewayAddedLatencyIsBounded() {
+        List<String> uris = cluster.uris("stub-service");
+        warmUp("/stub/echo");
+        driver.run(GraySimulationSettings.REQUESTS / 4,
+                i -> new GrayLoadDriver.Target(uris.get(i % uris.size()) + "/echo", null));
+
+        GrayLatency direct = GrayLatency.of(driver.run(GraySimulationSettings.REQUESTS,
+                i -> new GrayLoadDriver.Target(uris.get(i % uris.size()) + "/echo", TAGS[i % TAGS.length])));
+        GrayLatency routed = GrayLatency.of(driver.run(GraySimulationSettings.REQUESTS,
+                i -> new GrayLoadDriver.Target(gateway("/stub/echo"), TAGS[i % TAGS.length])));
+
+        long addedP50 = routed.p50() - direct.p50();
+        long addedP99 = routed.p99() - direct.p99();
+        log.info("direct p50={}us p99={}us, gateway p50={}us p99={}us, added p50={}us p99={}us",
+                micros(direct.p50()), micros(direct.p99()), micros(routed.p50()), micros(routed.p99()),
+                micros(addedP50), micros(addedP99));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(addedP99)).isLessThanOrEqualTo(GraySimulationSettings.MAX_ADDED_P99_MILLIS);
+    }
+
+    /**
+     * 泳道内各实例的请求数与平均值的偏差不超过允许的误差
+     */
+    private static void assertBalanced(String serviceId, Map<String, Integer> perInstance, int total) {
+        Map<String, Integer> perLane = new HashMap<>();
+        perInstance.forEach((instanceId, count) -> perLane.merge(cluster.laneOf(instanceId), count, Integer::sum));
+        perInstance.forEach((instanceId, count) -> {
+            String lane = cluster.laneOf(instanceId);
+            double mean = (double) perLane.get(lane) / cluster.count(serviceId, lane);
+            assertThat((double) count).as("requests of %s in lane %s", instanceId, lane)
+                    .isBetween(mean * (1 - GraySimulationSettings.BALANCE_TOLERANCE),
+                            mean * (1 + GraySimulationSettings.BALANCE_TOLERANCE));
+        });
+        log.info("{} requests per instance: {}", serviceId, perInstance);
+        assertThat(perInstance.values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(total);
+    }
+
+    /**
+     * 预热网关和负载均衡器，第一次请求时创建负载均衡器子容器并完成实例分区
+     */
+    private void warmUp(String path) {
+        driver.run(GraySimulationSettings.REQUESTS / 4, i -> new GrayLoadDriver.Target(gateway(path), TAGS[i % TAGS.length]));
+    }
+
+    private String gateway(String path) {
+        return "http://127.0.0.1:" + port + path;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.opensource.gray.simulation;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 模拟测试使用的网关应用，路由和灰度配置见application.yml，实例来自SimpleDiscoveryClient
+ *
+ * @author double
+ * @Date 2026/10/17 21:10
+ */
+@SpringBootApplication
+public class GraySimulationApplication {
+}
@@ -0,0 +1,108 @@
+package com.github.opensource.gray.simulation;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一组服务的桩实例，通过spring.cloud.discovery.client.simple.instances注册到SimpleDiscoveryClient
+ *
+ * @author double
+ * @Date 2026/10/17 21:10
+ */
+final class GraySimulationCluster implements AutoCloseable {
+
+    private final Map<String, List<GrayStubServer>> services = new LinkedHashMap<>();
+
+    private final Map<String, GrayStubServer> instances = new HashMap<>();
+
+    /**
+     * 为每个服务启动基线、gray和v2-alpha实例
+     *
+     * @param serviceIds 服务名称
+     * @return 已经启动的集群
+     */
+    static GraySimulationCluster start(String... serviceIds) {
+        GraySimulationCluster cluster = new GraySimulationCluster();
+        for (String serviceId : serviceIds) {
+            cluster.add(serviceId, null, GraySimulationSettings.BASE_INSTANCES);
+            cluster.add(serviceId, "gray", GraySimulationSettings.GRAY_INSTANCES);
+            cluster.add(serviceId, "v2-alpha", GraySimulationSettings.ALPHA_INSTANCES);
+        }
+        return cluster;
+    }
+
+    private void add(String serviceId, String version, int count) {
+        List<GrayStubServer> servers = services.computeIfAbsent(serviceId, id -> new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            String instanceId = serviceId + "-" + (version == null ? "base" : version) + "-" + i;
+            GrayStubServer server = GrayStubServer.start(instanceId, version);
+            servers.add(server);
+            instances.put(instanceId, server);
+        }
+    }
+
+    /**
+     * 注册SimpleDiscoveryClient的实例配置
+     *
+     * @param registry 动态属性
+     */
+    void register(DynamicPropertyRegistry registry) {
+        services.forEach((serviceId, servers) -> {
+            for (int i = 0; i < servers.size(); i++) {
+                GrayStubServer server = servers.get(i);
+                String prefix = "spring.cloud.discovery.client.simple.instances." + serviceId + "[" + i + "].";
+                registry.add(prefix + "uri", server::getUri);
+                registry.add(prefix + "instance-id", server::getInstanceId);
+                if (server.getVersion() != null) {
+                    registry.add(prefix + "metadata.version", server::getVersion);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param instanceId 实例ID
+     * @return 实例所在的泳道
+     */
+    String laneOf(String instanceId) {
+        GrayStubServer server = instances.get(instanceId);
+        return server == null ? null : server.getLane();
+    }
+
+    /**
+     * @param serviceId 服务名称
+     * @param lane      泳道
+     * @return 该泳道的实例数
+     */
+    int count(String serviceId, String lane) {
+        int count = 0;
+        for (GrayStubServer server : services.get(serviceId)) {
+            if (server.getLane().equals(lane)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param serviceId 服务名称
+     * @return 该服务全部实例的地址
+     */
+    List<String> uris(String serviceId) {
+        List<String> uris = new ArrayList<>();
+        for (GrayStubServer server : services.get(serviceId)) {
+            uris.add(server.getUri());
+        }
+        return uris;
+    }
+
+    @Override
+    public void close() {
+        instances.values().forEach(GrayStubServer::close);
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.opensource.gray.simulation;
+
+/**
+ * 模拟负载的参数，可以通过系统属性调整，例如-Dgray.simulation.requests=20000
+ *
+ * @author double
+ * @Date 2026/10/17 21:10
+ */
+final class GraySimulationSettings {
+
+    /**
+     * 每个场景发送的请求数
+     */
+    static final int REQUESTS = Integer.getInteger("gray.simulation.requests", 4000);
+
+    /**
+     * 并发请求数
+     */
+    static final int CONCURRENCY = Integer.getInteger("gray.simulation.concurrency", 64);
+
+    /**
+     * 每个服务的基线实例数
+     */
+    static final int BASE_INSTANCES = Integer.getInteger("gray.simulation.base-instances", 4);
+
+    /**
+     * 每个服务的灰度实例数
+     */
+    static final int GRAY_INSTANCES = Integer.getInteger("gray.simulation.gray-instances", 2);
+
+    /**
+     * 每个服务的v2-alpha实例数
+     */
+    static final int ALPHA_INSTANCES = Integer.getInteger("gray.simulation.alpha-instances", 1);
+
+    /**
+     * 按权重分流时灰度流量占比允许的误差
+     */
+    static final double WEIGHT_TOLERANCE = Double.parseDouble(System.getProperty("gray.simulation.weight-tolerance", "0.02"));
+
+    /**
+     * 泳道内各实例请求数与平均值允许的相对误差
+     */
+    static final double BALANCE_TOLERANCE = Double.parseDouble(System.getProperty("gray.simulation.balance-tolerance", "0.2"));
+
+    /**
+     * 网关带来的p99延迟上限，毫秒
+     */
+    static final long MAX_ADDED_P99_MILLIS = Long.getLong("gray.simulation.max-added-p99-ms", 50);
+
+    private GraySimulationSettings() {
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.opensource.gray.simulation;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * 进程内的桩服务实例，监听随机端口，响应中带上自己的实例ID以及收到的version请求头
+ *
+ * @author double
+ * @Date 2026/10/17 21:10
+ */
+final class GrayStubServer implements AutoCloseable {
+
+    /**
+     * 响应头：处理请求的实例ID
+     */
+    static final String INSTANCE_HEADER = "X-Stub-Instance";
+
+    /**
+     * 响应头：实例收到的version请求头，没有时为空字符串
+     */
+    static final String VERSION_HEADER = "X-Stub-Version";
+
+    private final String instanceId;
+
+    private final String version;
+
+    private final DisposableServer server;
+
+    private GrayStubServer(String instanceId, String version, DisposableServer server) {
+        this.instanceId = instanceId;
+        this.version = version;
+        this.server = server;
+    }
+
+    /**
+     * @param instanceId 实例ID
+     * @param version    实例元数据中的version，基线实例为null
+     * @return 已经启动的桩服务
+     */
+    static GrayStubServer start(String instanceId, String version) {
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> {
+                    String received = request.requestHeaders().get("version");
+                    return response.header(INSTANCE_HEADER, instanceId)
+                            .header(VERSION_HEADER, received == null ? "" : received)
+                            .sendString(Mono.just(instanceId));
+                })
+                .bindNow();
+        return new GrayStubServer(instanceId, version, server);
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * @return 实例所在的泳道，基线实例为base
+     */
+    String getLane() {
+        return version == null ? "base" : version;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    String getUri() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
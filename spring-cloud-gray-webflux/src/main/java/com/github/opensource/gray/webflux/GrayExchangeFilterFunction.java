@@ -0,0 +1,42 @@
+package com.github.opensource.gray.webflux;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayRequestContextHolder;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient灰度传递，WebClient调用中{@code GrayFeignRequestInterceptor}的对应实现。
+ * <p>
+ * 优先从Reactor Context中读取灰度标记，WebClient在Servlet线程上调用时退回到GrayRequestContextHolder。
+ * 非基线的灰度标记写入请求头version传递给下游，同时写入请求attributes，负载均衡器从中读取。
+ * 请求中已经显式设置了version时不覆盖。
+ *
+ * @author double
+ * @Date 2026/10/17 22:15
+ */
+public class GrayExchangeFilterFunction implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            String grayTag = context.getOrDefault(GrayConstant.GRAY_TAG_ATTRIBUTE, null);
+            if (grayTag == null) {
+                grayTag = GrayRequestContextHolder.getGrayTag();
+            }
+            if (StringUtils.isBlank(grayTag) || GrayConstant.HEADER_VERSION_FLAG_BASE.equals(grayTag)
+                    || request.headers().containsKey(GrayConstant.HEADER_VERSION_GRAY)) {
+                return next.exchange(request);
+            }
+            ClientRequest grayRequest = ClientRequest.from(request)
+                    .header(GrayConstant.HEADER_VERSION_GRAY, grayTag)
+                    .attribute(GrayConstant.GRAY_TAG_ATTRIBUTE, grayTag)
+                    .build();
+            return next.exchange(grayRequest);
+        });
+    }
+}
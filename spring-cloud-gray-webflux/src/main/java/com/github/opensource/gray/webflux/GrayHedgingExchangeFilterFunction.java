@@ -0,0 +1,103 @@
+package com.github.opensource.gray.webflux;
+
+import com.github.opensource.gray.GrayTriedInstances;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * WebClient对冲请求，缩短灰度泳道只有一两个实例时的长尾延迟。
+ * <p>
+ * 幂等请求超过目标服务最近耗时的百分位仍未响应时，再发出一个相同的请求，先返回的响应生效，另一个被取消，
+ * 已经返回的多余响应会释放响应体。需要在@LoadBalanced的WebClient.Builder中注册在负载均衡过滤器之前，
+ * 每个请求都会重新经过负载均衡：两个请求共享请求attributes中的{@link GrayTriedInstances}，
+ * 灰度负载均衡器在同一泳道内为对冲请求选择另一个实例。
+ * 样本不足时不对冲，对冲阈值不低于配置的最小延迟。
+ * <p>
+ * 错误语义与不对冲时一致：主请求失败时取消尚未返回的对冲请求，直接返回主请求的错误；
+ * 对冲请求失败时忽略，继续等待主请求。
+ *
+ * @author double
+ * @Date 2026/10/17 21:45
+ */
+public class GrayHedgingExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final GrayLatencyTracker latencyTracker;
+
+    private final long minDelayNanos;
+
+    private final Set<HttpMethod> methods;
+
+    public GrayHedgingExchangeFilterFunction(GrayHedgingProperties properties) {
+        this(new GrayLatencyTracker(properties.getPercentile(), properties.getWindow(), properties.getMinSamples(),
+                properties.getRefreshInterval().toNanos(), properties.getMaxServices()), properties.getMinDelay(),
+                properties.getMethods());
+    }
+
+    public GrayHedgingExchangeFilterFunction(GrayLatencyTracker latencyTracker, Duration minDelay,
+                                             Iterable<HttpMethod> methods) {
+        this.latencyTracker = latencyTracker;
+        this.minDelayNanos = minDelay.toNanos();
+        this.methods = new HashSet<>();
+        methods.forEach(this.methods::add);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!methods.contains(request.method()) || request.attributes().containsKey(GrayTriedInstances.ATTRIBUTE)) {
+            return next.exchange(request);
+        }
+        // lb://服务名 的host即服务名
+        String key = request.url().getHost();
+        long threshold = latencyTracker.threshold(key);
+        if (threshold < 0) {
+            return timed(key, next.exchange(request));
+        }
+        GrayTriedInstances tried = new GrayTriedInstances();
+        AtomicBoolean won = new AtomicBoolean();
+        Mono<ClientResponse> primary = first(timed(key, next.exchange(withTried(request, tried))), won);
+        // 对冲请求失败时不发出信号，继续等待主请求
+        Mono<ClientResponse> hedge = first(Mono.delay(Duration.ofNanos(Math.max(threshold, minDelayNanos)))
+                .then(Mono.defer(() -> next.exchange(withTried(request, tried)))), won)
+                .onErrorResume(e -> Mono.never());
+        // 先发出信号的一方生效并取消另一方：主请求失败时取消尚未返回的对冲请求，返回主请求的错误
+        return Mono.firstWithSignal(primary, hedge);
+    }
+
+    /**
+     * 只有第一个返回的响应生效。之后返回的响应释放响应体后丢弃，并且不发出任何信号，
+     * 避免先于生效的响应结束整个请求
+     */
+    private static Mono<ClientResponse> first(Mono<ClientResponse> attempt, AtomicBoolean won) {
+        return attempt.flatMap(response -> {
+            if (won.compareAndSet(false, true)) {
+                return Mono.just(response);
+            }
+            response.releaseBody().onErrorComplete().subscribe();
+            return Mono.never();
+        });
+    }
+
+    /**
+     * 记录主请求到收到响应头的耗时，主请求因对冲请求先返回而被取消时按已经等待的时间记录
+     */
+    private Mono<ClientResponse> timed(String key, Mono<ClientResponse> exchange) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return exchange.doOnNext(response -> latencyTracker.record(key, System.nanoTime() - start))
+                    .doOnCancel(() -> latencyTracker.record(key, System.nanoTime() - start));
+        });
+    }
+
+    private static ClientRequest withTried(ClientRequest request, GrayTriedInstances tried) {
+        return ClientRequest.from(request).attribute(GrayTriedInstances.ATTRIBUTE, tried).build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.opensource.gray.webflux;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WebClient对冲请求配置
+ *
+ * @author double
+ * @Date 2026/10/17 21:45
+ */
+@ConfigurationProperties("spring.cloud.loadbalancer.gray.hedging")
+@Data
+public class GrayHedgingProperties {
+
+    /**
+     * 是否为幂等请求开启对冲
+     */
+    private boolean enabled;
+
+    /**
+     * 主请求超过该服务最近耗时的这个百分位仍未响应时发出对冲请求，取值0~1
+     */
+    private double percentile = 0.95;
+
+    /**
+     * 对冲请求的最小延迟，避免耗时很短的服务被频繁对冲
+     */
+    private Duration minDelay = Duration.ofMillis(10);
+
+    /**
+     * 每个服务用于计算百分位的最近请求数
+     */
+    private int window = 1024;
+
+    /**
+     * 样本少于该数量时不对冲
+     */
+    private int minSamples = 100;
+
+    /**
+     * 百分位重新计算的间隔
+     */
+    private Duration refreshInterval = Duration.ofSeconds(1);
+
+    /**
+     * 最多统计耗时的目标服务数，超出后新的目标服务（例如直接按IP或外部域名访问）不统计也不对冲
+     */
+    private int maxServices = 256;
+
+    /**
+     * 允许对冲的幂等请求方法
+     */
+    private List<HttpMethod> methods = new ArrayList<>(List.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS));
+}
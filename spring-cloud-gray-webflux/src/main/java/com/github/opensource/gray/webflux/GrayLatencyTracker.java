@@ -0,0 +1,115 @@
+package com.github.opensource.gray.webflux;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按目标服务统计最近请求耗时的百分位，作为对冲请求的触发阈值。
+ * <p>
+ * 每个服务保存最近{@code window}个耗时的环形数组，记录时只做一次原子自增和一次数组写入；
+ * 百分位最多每{@code refreshNanos}重新计算一次，由恰好触发刷新的请求线程完成，其余线程读取缓存的结果。
+ * 统计的目标服务数有上限，达到上限后新的目标不再统计（始终没有阈值），host取值不受控制时内存也是有界的。
+ *
+ * @author double
+ * @Date 2026/10/17 21:45
+ */
+public class GrayLatencyTracker {
+
+    private final double percentile;
+
+    private final int window;
+
+    private final int minSamples;
+
+    private final long refreshNanos;
+
+    private final int maxKeys;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param percentile   百分位，取值0~1，例如0.95
+     * @param window       每个服务保留的最近耗时数量
+     * @param minSamples   样本少于该数量时不给出阈值
+     * @param refreshNanos 百分位重新计算的最小间隔
+     * @param maxKeys      最多统计的目标服务数
+     */
+    public GrayLatencyTracker(double percentile, int window, int minSamples, long refreshNanos, int maxKeys) {
+        this.percentile = percentile;
+        this.window = Math.max(window, 1);
+        this.minSamples = Math.min(Math.max(minSamples, 1), this.window);
+        this.refreshNanos = refreshNanos;
+        this.maxKeys = Math.max(maxKeys, 1);
+    }
+
+    /**
+     * @param key          目标服务
+     * @param latencyNanos 请求耗时
+     */
+    public void record(String key, long latencyNanos) {
+        Window current = windows.get(key);
+        if (current == null) {
+            // 并发记录新的目标时可能略微超出上限，不影响内存有界
+            if (key == null || windows.size() >= maxKeys) {
+                return;
+            }
+            current = windows.computeIfAbsent(key, k -> new Window(window));
+        }
+        current.record(latencyNanos);
+    }
+
+    /**
+     * @param key 目标服务
+     * @return 耗时百分位，纳秒，样本不足时返回-1
+     */
+    public long threshold(String key) {
+        Window current = key == null ? null : windows.get(key);
+        return current == null ? -1 : current.threshold();
+    }
+
+    private final class Window {
+
+        private final AtomicLongArray latencies;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong computedAt = new AtomicLong(System.nanoTime() - refreshNanos);
+
+        private volatile long threshold = -1;
+
+        private Window(int size) {
+            this.latencies = new AtomicLongArray(size);
+        }
+
+        private void record(long latencyNanos) {
+            long index = count.getAndIncrement();
+            latencies.lazySet((int) (index % latencies.length()), latencyNanos);
+        }
+
+        private long threshold() {
+            long now = System.nanoTime();
+            long last = computedAt.get();
+            if (now - last >= refreshNanos && computedAt.compareAndSet(last, now)) {
+                threshold = compute();
+            }
+            return threshold;
+        }
+
+        private long compute() {
+            int samples = (int) Math.min(count.get(), latencies.length());
+            if (samples < minSamples) {
+                return -1;
+            }
+            long[] sorted = new long[samples];
+            for (int i = 0; i < samples; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * samples) - 1;
+            return sorted[Math.min(Math.max(index, 0), samples - 1)];
+        }
+    }
+}
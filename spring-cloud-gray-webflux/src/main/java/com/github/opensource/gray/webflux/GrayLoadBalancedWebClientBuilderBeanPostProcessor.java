@@ -0,0 +1,62 @@
+package com.github.opensource.gray.webflux;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * 为@LoadBalanced的WebClient.Builder添加灰度过滤器。
+ * <p>
+ * 应用自己声明的@LoadBalanced WebClient.Builder一般由WebClient.builder()创建，不会应用WebClientCustomizer，
+ * 这里与spring-cloud-commons的LoadBalancerWebClientBuilderBeanPostProcessor一样在初始化前添加过滤器。
+ * 本处理器实现了Ordered，先于负载均衡的处理器执行，过滤器位于负载均衡过滤器的外层；
+ * Builder已经通过WebClientCustomizer添加过同一个过滤器时不重复添加。
+ *
+ * @author double
+ * @Date 2026/10/18 10:05
+ */
+public class GrayLoadBalancedWebClientBuilderBeanPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<? extends ExchangeFilterFunction> filter;
+
+    private final ApplicationContext context;
+
+    public GrayLoadBalancedWebClientBuilderBeanPostProcessor(ObjectProvider<? extends ExchangeFilterFunction> filter,
+                                                             ApplicationContext context) {
+        this.filter = filter;
+        this.context = context;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof WebClient.Builder builder
+                && context.findAnnotationOnBean(beanName, LoadBalanced.class) != null) {
+            addFilter(builder, filter.getObject());
+        }
+        return bean;
+    }
+
+    /**
+     * 添加过滤器，已经添加过时忽略
+     *
+     * @param builder WebClient.Builder
+     * @param filter  过滤器
+     */
+    static void addFilter(WebClient.Builder builder, ExchangeFilterFunction filter) {
+        builder.filters(filters -> {
+            if (!filters.contains(filter)) {
+                filters.add(filter);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.opensource.gray.webflux;
+
+import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayDecisionEvent;
+import com.github.opensource.gray.GrayDecisionReason;
+import com.github.opensource.gray.GrayDecisionTracer;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
+import com.github.opensource.gray.GrayRequestMetrics;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * WebFlux灰度过滤器，WebFlux/Netty服务中{@code GrayFilter}的对应实现。
+ * <p>
+ * 请求头version指定了非基线泳道（gray或者v2-alpha等）时，将灰度标记写入exchange attributes和Reactor Context，
+ * 处理链上的WebClient调用（{@link GrayExchangeFilterFunction}）和负载均衡器从中读取，不经过ThreadLocal。
+ * 需要在业务代码中通过GrayRequestContextHolder读取时，开启spring.reactor.context-propagation=auto即可。
+ *
+ * @author double
+ * @Date 2026/10/17 22:10
+ */
+public class GrayWebFilter implements WebFilter, Ordered {
+
+    private static final Context GRAY_CONTEXT = Context.of(GrayConstant.GRAY_TAG_ATTRIBUTE, GrayConstant.HEADER_VERSION_FLAG_GRAY);
+
+    /**
+     * 按泳道的请求计数
+     */
+    private final GrayRequestMetrics grayRequestMetrics;
+
+    private final GrayDecisionTracer grayDecisionTracer = GrayDecisionTracer.getInstance();
+
+    private final GrayLaneRegistry laneRegistry = GrayLaneRegistry.getInstance();
+
+    public GrayWebFilter() {
+        this(GrayRequestMetrics.NOOP);
+    }
+
+    public GrayWebFilter(GrayRequestMetrics grayRequestMetrics) {
+        this.grayRequestMetrics = grayRequestMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // 从请求头中获取灰度标记
+        String gray = exchange.getRequest().getHeaders().getFirst(GrayConstant.HEADER_VERSION_GRAY);
+        grayRequestMetrics.record(gray);
+        if (grayDecisionTracer.sample()) {
+            trace(gray);
+        }
+        if (StringUtils.isBlank(gray) || GrayConstant.HEADER_VERSION_FLAG_BASE.equals(gray)) {
+            return chain.filter(exchange);
+        }
+        exchange.getAttributes().put(GrayConstant.GRAY_TAG_ATTRIBUTE, gray);
+        Context context = GrayConstant.HEADER_VERSION_FLAG_GRAY.equals(gray)
+                ? GRAY_CONTEXT : Context.of(GrayConstant.GRAY_TAG_ATTRIBUTE, gray);
+        return chain.filter(exchange).contextWrite(context);
+    }
+
+    private void trace(String gray) {
+        boolean tagged = StringUtils.isNotBlank(gray);
+        // 请求头的取值由客户端决定，只记录已驻留的泳道名称，未驻留的按基线记录
+        GrayLane lane = laneRegistry.find(gray);
+        grayDecisionTracer.record(GrayDecisionEvent.builder()
+                .component("webflux")
+                .grayTag(gray)
+                .lane(lane != null ? lane.getName() : GrayConstant.HEADER_VERSION_FLAG_BASE)
+                .reason(tagged ? GrayDecisionReason.HEADER : GrayDecisionReason.DEFAULT)
+                .build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.opensource.gray.webflux;
+
+import com.github.opensource.gray.GrayRequestMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * 配置WebFlux灰度过滤器和WebClient灰度传递
+ *
+ * @author double
+ * @Date 2026/10/17 22:20
+ */
+@Configuration
+@ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true", matchIfMissing = true)
+public class GrayWebFluxAutoConfiguration {
+
+    /**
+     * 网关使用GrayGlobalFilter，不再注册WebFilter
+     *
+     * @return GrayWebFilter
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnMissingClass("org.springframework.cloud.gateway.filter.GlobalFilter")
+    public GrayWebFilter grayWebFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GrayWebFilter(GrayRequestMetrics.of(meterRegistry.getIfAvailable(), "webflux"));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(WebClient.class)
+    static class GrayWebClientConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public GrayExchangeFilterFunction grayExchangeFilterFunction() {
+            return new GrayExchangeFilterFunction();
+        }
+
+        /**
+         * 为Spring Boot创建的WebClient.Builder添加灰度传递
+         *
+         * @param grayExchangeFilterFunction WebClient灰度传递
+         * @return WebClientCustomizer
+         */
+        @Bean
+        public WebClientCustomizer grayWebClientCustomizer(GrayExchangeFilterFunction grayExchangeFilterFunction) {
+            return builder -> GrayLoadBalancedWebClientBuilderBeanPostProcessor.addFilter(builder, grayExchangeFilterFunction);
+        }
+
+        /**
+         * 应用自己声明的@LoadBalanced WebClient.Builder不会应用WebClientCustomizer，初始化前添加灰度传递
+         *
+         * @param grayExchangeFilterFunction WebClient灰度传递
+         * @param context                    ApplicationContext
+         * @return GrayLoadBalancedWebClientBuilderBeanPostProcessor
+         */
+        @Bean
+        public static GrayLoadBalancedWebClientBuilderBeanPostProcessor grayWebClientBuilderBeanPostProcessor(
+                ObjectProvider<GrayExchangeFilterFunction> grayExchangeFilterFunction, ApplicationContext context) {
+            return new GrayLoadBalancedWebClientBuilderBeanPostProcessor(grayExchangeFilterFunction, context);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(WebClient.class)
+    @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.hedging.enabled", havingValue = "true")
+    @EnableConfigurationProperties(GrayHedgingProperties.class)
+    static class GrayHedgingConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public GrayHedgingExchangeFilterFunction grayHedgingExchangeFilterFunction(GrayHedgingProperties grayHedgingProperties) {
+            return new GrayHedgingExchangeFilterFunction(grayHedgingProperties);
+        }
+
+        /**
+         * 为Spring Boot创建的WebClient.Builder添加对冲，WebClientCustomizer在负载均衡过滤器之前应用
+         *
+         * @param grayHedgingExchangeFilterFunction WebClient对冲请求
+         * @return WebClientCustomizer
+         */
+        @Bean
+        public WebClientCustomizer grayHedgingWebClientCustomizer(GrayHedgingExchangeFilterFunction grayHedgingExchangeFilterFunction) {
+            return builder -> GrayLoadBalancedWebClientBuilderBeanPostProcessor.addFilter(builder, grayHedgingExchangeFilterFunction);
+        }
+
+        /**
+         * 为应用自己声明的@LoadBalanced WebClient.Builder添加对冲，位于负载均衡过滤器之前，对冲请求会重新经过负载均衡
+         *
+         * @param grayHedgingExchangeFilterFunction WebClient对冲请求
+         * @param context                           ApplicationContext
+         * @return GrayLoadBalancedWebClientBuilderBeanPostProcessor
+         */
+        @Bean
+        public static GrayLoadBalancedWebClientBuilderBeanPostProcessor grayHedgingWebClientBuilderBeanPostProcessor(
+                ObjectProvider<GrayHedgingExchangeFilterFunction> grayHedgingExchangeFilterFunction,
+                ApplicationContext context) {
+            return new GrayLoadBalancedWebClientBuilderBeanPostProcessor(grayHedgingExchangeFilterFunction, context);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.github.opensource.gray.web;
 
 import com.github.opensource.gray.GrayConstant;
+import com.github.opensource.gray.GrayDecisionEvent;
+import com.github.opensource.gray.GrayDecisionReason;
+import com.github.opensource.gray.GrayDecisionTracer;
+import com.github.opensource.gray.GrayLane;
+import com.github.opensource.gray.GrayLaneRegistry;
 import com.github.opensource.gray.GrayRequestContextHolder;
+import com.github.opensource.gray.GrayRequestMetrics;
+import org.apache.commons.lang3.StringUtils;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
@@ -21,6 +28,23 @@ import java.io.IOException;
  */
 public class GrayFilter implements Filter {
 
+    /**
+     * 按泳道的请求计数
+     */
+    private final GrayRequestMetrics grayRequestMetrics;
+
+    private final GrayDecisionTracer grayDecisionTracer = GrayDecisionTracer.getInstance();
+
+    private final GrayLaneRegistry laneRegistry = GrayLaneRegistry.getInstance();
+
+    public GrayFilter() {
+        this(GrayRequestMetrics.NOOP);
+    }
+
+    public GrayFilter(GrayRequestMetrics grayRequestMetrics) {
+        this.grayRequestMetrics = grayRequestMetrics;
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
 
@@ -33,10 +57,14 @@ public class GrayFilter implements Filter {
         try {
             // 从请求头中获取灰度标记
             String gray = request.getHeader(GrayConstant.HEADER_VERSION_GRAY);
-            // 如果灰度标记存在且为指定的灰度值，则设置线程上下文中的灰度标记
-            // 如果HttpHeader中灰度标记为true，则将灰度标记放到holder中，如果需要就传递下去
-            if (gray != null && gray.equals(GrayConstant.HEADER_VERSION_FLAG_GRAY)) {
-                GrayRequestContextHolder.setGrayTag(GrayConstant.HEADER_VERSION_FLAG_GRAY);
+            grayRequestMetrics.record(gray);
+            if (grayDecisionTracer.sample()) {
+                trace(gray);
+            }
+            // 如果灰度标记存在且不是基线，则设置线程上下文中的灰度标记（gray或者v2-alpha等任意泳道）
+            // 将灰度标记放到holder中，如果需要就传递下去
+            if (StringUtils.isNotBlank(gray) && !GrayConstant.HEADER_VERSION_FLAG_BASE.equals(gray)) {
+                GrayRequestContextHolder.setGrayTag(gray);
             }
             chain.doFilter(request, response);
         } finally {
@@ -45,6 +73,18 @@ public class GrayFilter implements Filter {
         }
     }
 
+    private void trace(String gray) {
+        boolean tagged = StringUtils.isNotBlank(gray);
+        // 请求头的取值由客户端决定，只记录已驻留的泳道名称，未驻留的按基线记录
+        GrayLane lane = laneRegistry.find(gray);
+        grayDecisionTracer.record(GrayDecisionEvent.builder()
+                .component("webmvc")
+                .grayTag(gray)
+                .lane(lane != null ? lane.getName() : GrayConstant.HEADER_VERSION_FLAG_BASE)
+                .reason(tagged ? GrayDecisionReason.HEADER : GrayDecisionReason.DEFAULT)
+                .build());
+    }
+
     @Override
     public void destroy() {
 
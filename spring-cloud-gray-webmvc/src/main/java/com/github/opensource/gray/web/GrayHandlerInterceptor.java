@@ -4,6 +4,7 @@ import com.github.opensource.gray.GrayConstant;
 import com.github.opensource.gray.GrayRequestContextHolder;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
@@ -36,10 +37,10 @@ public class GrayHandlerInterceptor implements HandlerInterceptor {
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         // 从请求头中获取灰度标记
         String gray = request.getHeader(GrayConstant.HEADER_VERSION_GRAY);
-        // 如果灰度标记存在且为指定的灰度值，则设置线程上下文中的灰度标记
-        // 如果HttpHeader中灰度标记为true，则将灰度标记放到holder中，如果需要就传递下去
-        if (gray != null && gray.equals(GrayConstant.HEADER_VERSION_FLAG_GRAY)) {
-            GrayRequestContextHolder.setGrayTag(GrayConstant.HEADER_VERSION_FLAG_GRAY);
+        // 如果灰度标记存在且不是基线，则设置线程上下文中的灰度标记（gray或者v2-alpha等任意泳道）
+        // 将灰度标记放到holder中，如果需要就传递下去
+        if (StringUtils.isNotBlank(gray) && !GrayConstant.HEADER_VERSION_FLAG_BASE.equals(gray)) {
+            GrayRequestContextHolder.setGrayTag(gray);
         }
         // 允许请求继续处理
         return true;
@@ -1,5 +1,8 @@
 package com.github.opensource.gray.web;
 
+import com.github.opensource.gray.GrayRequestMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -39,7 +42,7 @@ public class GrayWebMvcAutoConfiguration {
     @ConditionalOnMissingBean
     @ConditionalOnClass(Filter.class)
     @ConditionalOnProperty(value = "spring.cloud.loadbalancer.gray.enabled", havingValue = "true", matchIfMissing = true)
-    public GrayFilter grayTrackFilter() {
-        return new GrayFilter();
+    public GrayFilter grayTrackFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GrayFilter(GrayRequestMetrics.of(meterRegistry.getIfAvailable(), "webmvc"));
     }
 }
\ No newline at end of file